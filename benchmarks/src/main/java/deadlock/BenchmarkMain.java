@@ -0,0 +1,48 @@
+package deadlock;
+
+import java.util.Random;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result also shows the
+ * bytes allocated per operation. Takes the usual JMH command line options,
+ * e.g. a benchmark name pattern or -p size=100x400.
+ *
+ * @author Shenal
+ *
+ */
+public class BenchmarkMain {
+
+	/**
+	 * Run the benchmarks.
+	 *
+	 * @param args - JMH command line options.
+	 * @throws RunnerException            if a benchmark fails.
+	 * @throws CommandLineOptionException if an option is not valid.
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions options = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+	}
+
+	/**
+	 * Create the random problem for a benchmark size. The same size always gives
+	 * the same problem.
+	 *
+	 * @param size - items and resources, e.g. "100x400".
+	 * @return problem
+	 */
+	static Problem createProblem(String size) {
+		int split = size.indexOf('x');
+		int items = Integer.parseInt(size.substring(0, split));
+		int resources = Integer.parseInt(size.substring(split + 1));
+		return Problem.random(items, resources, new Random(42));
+	}
+
+}
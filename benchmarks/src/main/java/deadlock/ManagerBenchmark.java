@@ -0,0 +1,104 @@
+package deadlock;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for creating and evaluating one individual.
+ *
+ * @author Shenal
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ManagerBenchmark {
+
+	@Param({ "20x50", "100x400", "400x2000" })
+	public String size; // Items x resources of the problem.
+
+	private Problem problem = null; // Problem being solved.
+	private Random r = null; // Random number generator for new individuals.
+	private ScheduleEvaluator evaluator = null; // Evaluator reused by every evaluation.
+	private Manager parent = null; // Evaluated individual.
+	private Manager child = null; // Copy of the parent changed by each delta evaluation.
+	private Population population = null; // Population supplying the mutation operator.
+
+	/**
+	 * Create the problem and an evaluated individual.
+	 */
+	@Setup
+	public void setUp() {
+		problem = BenchmarkMain.createProblem(size);
+		r = new Random(7);
+		evaluator = new ScheduleEvaluator(problem);
+		parent = new Manager(problem, r);
+		parent.calculateScheduleTime(evaluator);
+		child = new Manager(parent);
+		SolverSettings settings = new SolverSettings(10);
+		settings.setSeed(7L);
+		settings.setVerbose(false);
+		population = new Population(problem, settings);
+	}
+
+	/**
+	 * Create a random individual (shuffled Schedule and its fingerprint).
+	 *
+	 * @return individual
+	 */
+	@Benchmark
+	public Manager createRandom() {
+		return new Manager(problem, r);
+	}
+
+	/**
+	 * Copy an evaluated individual, as crossover does for each child.
+	 *
+	 * @return copy
+	 */
+	@Benchmark
+	public Manager copy() {
+		return new Manager(parent);
+	}
+
+	/**
+	 * Evaluate a whole Schedule from the start.
+	 *
+	 * @return makespan
+	 */
+	@Benchmark
+	public int calculateScheduleTime() {
+		parent.calculateScheduleTime(evaluator);
+		return parent.getResult();
+	}
+
+	/**
+	 * Evaluate a mutated copy of an individual from the saved state of its
+	 * parent.
+	 *
+	 * @return makespan
+	 */
+	@Benchmark
+	public int calculateScheduleTimeDelta() {
+		child.copyFrom(parent);
+		population.performMutation(child);
+		child.calculateScheduleTime(evaluator);
+		return child.getResult();
+	}
+
+}
@@ -0,0 +1,110 @@
+package deadlock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the Genetic Algorithm operators of a population in each
+ * breeding mode. The population keeps evolving between calls, as it does in a
+ * real run. A generational generation breeds populationSize children where a
+ * steady-state generation breeds two, so divide its nextGeneration time by
+ * populationSize / 2 to compare the cost per child.
+ *
+ * @author Shenal
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PopulationBenchmark {
+
+	@Param({ "20x50", "100x400", "400x2000" })
+	public String size; // Items x resources of the problem.
+
+	@Param({ "100" })
+	public int populationSize; // Individuals in the population.
+
+	@Param({ "STEADY_STATE", "GENERATIONAL" })
+	public BreedingMode mode; // How individuals are replaced.
+
+	private Population population = null; // Evaluated population.
+	private Manager mutant = null; // Individual changed by the mutation benchmark.
+	private int generation = 0; // Generations run by the generation benchmark.
+
+	/**
+	 * Create and evaluate the population.
+	 */
+	@Setup
+	public void setUp() {
+		SolverSettings settings = new SolverSettings(populationSize);
+		settings.setSeed(7L);
+		settings.setVerbose(false);
+		settings.setMode(mode);
+		population = new Population(BenchmarkMain.createProblem(size), settings);
+		population.initialisePopulation();
+		mutant = new Manager(population.getIndividual(0));
+	}
+
+	/**
+	 * Pick two parents out of five random individuals.
+	 */
+	@Benchmark
+	public void selectParents() {
+		population.selectParents();
+	}
+
+	/**
+	 * Create two children by crossover of two parents (the children are then
+	 * dropped without being evaluated).
+	 */
+	@Benchmark
+	public void performCrossover() {
+		population.performCrossover(population.getIndividual(0), population.getIndividual(1));
+		population.releaseChildren();
+	}
+
+	/**
+	 * Swap two Timeslots in one Resource Schedule.
+	 */
+	@Benchmark
+	public void performMutation() {
+		population.performMutation(mutant);
+	}
+
+	/**
+	 * Cross two individuals, evaluate the children and keep the best two of the
+	 * four, which is a steady-state generation without parent selection.
+	 */
+	@Benchmark
+	public void performTournamentSelection() {
+		population.performCrossover(population.getIndividual(0), population.getIndividual(1));
+		population.evaluate(population.getChildren());
+		population.performTournamentSelection(0, 1);
+		population.getChildren().clear();
+	}
+
+	/**
+	 * Run one full generation.
+	 *
+	 * @return false if the population stopped making progress.
+	 */
+	@Benchmark
+	public boolean nextGeneration() {
+		return population.nextGeneration(generation++);
+	}
+
+}
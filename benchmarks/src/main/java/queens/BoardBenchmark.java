@@ -0,0 +1,95 @@
+package queens;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the fitness, swap mutation and repair function of one n-queens
+ * board.
+ *
+ * @author Shenal Abeyasinghe
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+	@Param({ "8", "64", "512" })
+	public int n; // Board size.
+
+	private Board board = null; // Random board.
+	private Random r = null; // Picks the columns of each swap.
+	private int[] crossed = null; // Queens after a two point crossover (with duplicates).
+	private int[] child = null; // Queens repaired by each call.
+	private BitSet seen = null; // Buffer for the repair function.
+	private int[] missing = null; // Buffer for the repair function.
+
+	/**
+	 * Create a random board and a crossover child of two random boards.
+	 */
+	@Setup
+	public void setUp() {
+		r = new Random(7);
+		board = new Board(n);
+		int[] parent1 = Board.initialiseBoard(n, r);
+		int[] parent2 = Board.initialiseBoard(n, r);
+		crossed = parent1.clone();
+		System.arraycopy(parent2, n / 4, crossed, n / 4, 3 * n / 4 - n / 4);
+		child = new int[n];
+		seen = new BitSet(n + 1);
+		missing = new int[n];
+	}
+
+	/**
+	 * Count the conflicts on a board.
+	 *
+	 * @return conflicts
+	 */
+	@Benchmark
+	public int checkConflicts() {
+		board.checkConflicts();
+		return board.getConflictCount();
+	}
+
+	/**
+	 * Swap two random queens, updating the conflicts incrementally.
+	 *
+	 * @return conflicts
+	 */
+	@Benchmark
+	public int swapQueens() {
+		board.swapQueens(r.nextInt(n), r.nextInt(n));
+		return board.getConflictCount();
+	}
+
+	/**
+	 * Repair a crossover child (the child is reset to the crossover result
+	 * first).
+	 *
+	 * @return repaired queens
+	 */
+	@Benchmark
+	public int[] repair() {
+		System.arraycopy(crossed, 0, child, 0, n);
+		Population.repair(child, n, seen, missing);
+		return child;
+	}
+
+}
@@ -0,0 +1,149 @@
+package deadlock;
+
+import java.nio.file.Path;
+
+/**
+ * Result of solving one plan file in a batch: the best makespan found and the
+ * cost of finding it, or the error which stopped the problem being solved.
+ *
+ * @author Shenal
+ *
+ */
+public class BatchResult {
+
+	/**
+	 * Header line for the CSV records written by toCsv().
+	 */
+	public static final String CSV_HEADER = "file,makespan,generations,evaluations,wallMillis,error";
+
+	private Path file = null; // Plan file of the problem.
+	private int makespan = -1; // Best makespan found (-1 if the problem failed).
+	private long generations = 0; // Generations run.
+	private long evaluations = 0; // Individuals evaluated.
+	private long wallNanos = 0; // Wall time from reading the file to the end of the run.
+	private Throwable error = null; // Error which stopped the problem (null if solved).
+
+	/**
+	 * Constructor for BatchResult of a solved problem.
+	 *
+	 * @param file       - plan file of the problem.
+	 * @param makespan   - best makespan found.
+	 * @param statistics - statistics of the run.
+	 * @param wallNanos  - wall time for the problem in nanoseconds.
+	 */
+	public BatchResult(Path file, int makespan, RunStatistics statistics, long wallNanos) {
+		this.file = file;
+		this.makespan = makespan;
+		this.generations = statistics.getGenerations();
+		this.evaluations = statistics.getEvaluations();
+		this.wallNanos = wallNanos;
+	}
+
+	/**
+	 * Constructor for BatchResult of a problem which could not be solved.
+	 *
+	 * @param file      - plan file of the problem.
+	 * @param error     - error which stopped the problem.
+	 * @param wallNanos - wall time for the problem in nanoseconds.
+	 */
+	public BatchResult(Path file, Throwable error, long wallNanos) {
+		this.file = file;
+		this.error = error;
+		this.wallNanos = wallNanos;
+	}
+
+	/**
+	 * Get the plan file of the problem.
+	 *
+	 * @return file
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Get the best makespan found.
+	 *
+	 * @return makespan, or -1 if the problem failed.
+	 */
+	public int getMakespan() {
+		return makespan;
+	}
+
+	/**
+	 * Get number of generations run.
+	 *
+	 * @return generations
+	 */
+	public long getGenerations() {
+		return generations;
+	}
+
+	/**
+	 * Get number of individuals evaluated.
+	 *
+	 * @return evaluations
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Get wall time for the problem.
+	 *
+	 * @return wall time in nanoseconds.
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * Get the error which stopped the problem being solved.
+	 *
+	 * @return error, or null if the problem was solved.
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * Check whether the problem was solved.
+	 *
+	 * @return true if there was no error.
+	 */
+	public boolean isSolved() {
+		return error == null;
+	}
+
+	/**
+	 * Get this result as one CSV record (see CSV_HEADER).
+	 *
+	 * @return csv record
+	 */
+	public String toCsv() {
+		String message = error == null ? "" : (error.getClass().getSimpleName() + ": " + error.getMessage());
+		return quote(file.toString()) + "," + makespan + "," + generations + "," + evaluations + ","
+				+ wallNanos / 1000000 + "," + quote(message);
+	}
+
+	/**
+	 * Quote a CSV field if it holds a comma, quote or line break, doubling any
+	 * quotes in it.
+	 *
+	 * @param field - field value.
+	 * @return field as written in a record.
+	 */
+	private static String quote(String field) {
+		if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0
+				&& field.indexOf('\r') < 0) {
+			return field;
+		}
+		return '"' + field.replace("\"", "\"\"") + '"';
+	}
+
+	@Override
+	public String toString() {
+		return toCsv();
+	}
+
+}
@@ -0,0 +1,124 @@
+package deadlock;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Solves many plan files at once on a fixed number of threads. Each problem
+ * runs in its own Population with a copy of the same settings (and so the same
+ * per-problem termination budget), and its result is passed on as soon as it
+ * finishes, so results arrive in order of completion rather than file order.
+ * A plan file is only read when a thread is free to solve it, so at most one
+ * problem per thread is held in memory. If the settings have more than one
+ * island, each problem is solved by an IslandModel on its own threads.
+ *
+ * @author Shenal
+ *
+ */
+public class BatchSolver {
+
+	private SolverSettings settings = null; // Settings for every problem.
+	private int concurrency; // Number of problems solved at the same time.
+
+	/**
+	 * Constructor for BatchSolver.
+	 *
+	 * @param settings    - settings (including the termination budget) for every
+	 *                    problem.
+	 * @param concurrency - number of problems solved at the same time.
+	 */
+	public BatchSolver(SolverSettings settings, int concurrency) {
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("Concurrency must be at least 1");
+		}
+		this.settings = new SolverSettings(settings);
+		this.settings.setVerbose(false); // Problems would print over each other.
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Solve every plan CSV file and binary problem file in a directory.
+	 *
+	 * @param directory - directory of plan files (*.csv) and problem files
+	 *                  (*.dlp).
+	 * @param listener  - receives each result as its problem finishes.
+	 * @return number of problems solved or failed.
+	 * @throws IOException if the directory can not be read.
+	 */
+	public int solve(Path directory, Consumer<BatchResult> listener) throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{csv,dlp}")) {
+			for (Path file : stream) {
+				files.add(file);
+			}
+		}
+		Collections.sort(files); // Start problems in a predictable order.
+		return solve(files, listener);
+	}
+
+	/**
+	 * Solve a list of plan files. A file which can not be read or solved gives a
+	 * failed result instead of stopping the batch.
+	 *
+	 * @param files    - plan files.
+	 * @param listener - receives each result (on the calling thread) as its
+	 *                 problem finishes.
+	 * @return number of problems solved or failed.
+	 */
+	public int solve(List<Path> files, Consumer<BatchResult> listener) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(1, files.size())));
+		try {
+			CompletionService<BatchResult> completed = new ExecutorCompletionService<BatchResult>(executor);
+			for (Path file : files) {
+				completed.submit(() -> solveOne(file));
+			}
+			for (int i = 0; i < files.size(); i++) {
+				listener.accept(completed.take().get());
+			}
+			return files.size();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Batch interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Batch problem failed", e.getCause()); // solveOne catches its own errors.
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Read and solve one plan file or problem file (told apart by the magic
+	 * number, as with --plan).
+	 *
+	 * @param file - plan file or problem file.
+	 * @return result of the problem.
+	 */
+	private BatchResult solveOne(Path file) {
+		long start = System.nanoTime();
+		try {
+			Problem problem = ProblemFile.readProblem(file);
+			if (settings.getIslandCount() > 1) {
+				IslandModel islands = new IslandModel(problem, new SolverSettings(settings));
+				Manager best = islands.run();
+				return new BatchResult(file, best.getResult(), islands.getStatistics(), System.nanoTime() - start);
+			}
+			Population population = new Population(problem, new SolverSettings(settings));
+			Manager best = population.run();
+			return new BatchResult(file, best.getResult(), population.getStatistics(), System.nanoTime() - start);
+		} catch (IOException | RuntimeException e) {
+			return new BatchResult(file, e, System.nanoTime() - start);
+		}
+	}
+
+}
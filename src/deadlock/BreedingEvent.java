@@ -0,0 +1,21 @@
+package deadlock;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for breeding the children of one generation.
+ *
+ * @author Shenal
+ *
+ */
+@Name("deadlock.Breeding")
+@Label("Breeding")
+@Description("Parent selection, crossover (including copying the parents) and mutation of the children of one generation")
+class BreedingEvent extends SolverEvent {
+
+	@Label("Children")
+	int children; // Number of children bred.
+
+}
@@ -0,0 +1,17 @@
+package deadlock;
+
+/**
+ * How the Genetic Algorithm replaces individuals in each generation.
+ *
+ * @author Shenal
+ *
+ */
+public enum BreedingMode {
+
+	// Two children per generation, which compete with their two parents.
+	STEADY_STATE,
+	// A full batch of children per generation, evaluated together, after which
+	// the best individuals out of the population and the children survive.
+	GENERATIONAL
+
+}
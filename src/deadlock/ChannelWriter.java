@@ -0,0 +1,84 @@
+package deadlock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Buffered output of big-endian ints, longs and bytes to a file channel.
+ *
+ * @author Shenal
+ *
+ */
+class ChannelWriter {
+
+	private FileChannel channel = null; // File being written.
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16); // Bytes waiting to be written.
+
+	/**
+	 * Constructor for ChannelWriter.
+	 *
+	 * @param channel - file being written.
+	 */
+	ChannelWriter(FileChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Write an int.
+	 *
+	 * @param value - value to be written.
+	 * @throws IOException if the file can not be written.
+	 */
+	void putInt(int value) throws IOException {
+		if (buffer.remaining() < 4) {
+			flush();
+		}
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Write a long.
+	 *
+	 * @param value - value to be written.
+	 * @throws IOException if the file can not be written.
+	 */
+	void putLong(long value) throws IOException {
+		if (buffer.remaining() < 8) {
+			flush();
+		}
+		buffer.putLong(value);
+	}
+
+	/**
+	 * Write bytes.
+	 *
+	 * @param bytes - bytes to be written.
+	 * @throws IOException if the file can not be written.
+	 */
+	void putBytes(byte[] bytes) throws IOException {
+		int written = 0;
+		while (written < bytes.length) {
+			if (!(buffer.hasRemaining())) {
+				flush();
+			}
+			int length = Math.min(buffer.remaining(), bytes.length - written);
+			buffer.put(bytes, written, length);
+			written += length;
+		}
+	}
+
+	/**
+	 * Write out every waiting byte.
+	 *
+	 * @throws IOException if the file can not be written.
+	 */
+	void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
@@ -0,0 +1,274 @@
+package deadlock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Full search state of a Population between two generations, so that a run can
+ * be stopped and later continued exactly as if it had never stopped. Every
+ * number is big-endian:
+ *
+ * <pre>
+ * magic "DLCK", version
+ * itemCount, resourceCount, slotCount, problemHash (long)
+ * cycles, averageResult, bestResult
+ * generations, evaluations, cacheLookups, cacheHits, improvedAt, elapsedNanos,
+ *     allocatedBytes (longs, allocatedBytes only from version 2)
+ * random: byteCount, serialized java.util.Random (padded to 4)
+ * populationSize, then for each individual:
+ *     result, flags (1 = evaluated, 0 = fitness from the cache),
+ *     schedule[slotCount] (Timeslot at each Schedule index)
+ * cacheSize, cacheKeys[cacheSize] (longs), cacheValues[cacheSize]
+ * </pre>
+ *
+ * The fitness cache is saved as well because cache hits decide which
+ * evaluations are counted, and so when an evaluation budget runs out.
+ *
+ * @author Shenal
+ *
+ */
+class Checkpoint {
+
+	private static final int MAGIC = 0x444C434B; // "DLCK"
+	private static final int VERSION = 2; // Version of the format written.
+	private static final int EVALUATED = 1; // Flag for an individual with saved evaluation state.
+
+	int cycles; // Generations run by the loop in Population.run().
+	int averageResult; // Average fitness at the last progress check.
+	int bestResult; // Best fitness found so far.
+	long generations; // Generations finished.
+	long evaluations; // Individuals evaluated.
+	long cacheLookups; // Children looked up in the fitness cache.
+	long cacheHits; // Children found in the fitness cache.
+	long improvedAt; // Generation in which the best fitness last improved.
+	long elapsedNanos; // Run time so far.
+	long allocatedBytes = -1; // Bytes allocated by the generations so far (-1 if unknown).
+	byte[] random = null; // Serialized random number generator.
+	int[][] schedules = null; // Schedule of each individual, in population order.
+	int[] results = null; // Fitness of each individual.
+	boolean[] evaluated = null; // Whether each individual has saved evaluation state.
+	long[] cacheKeys = new long[0]; // Fingerprints in the fitness cache.
+	int[] cacheValues = new int[0]; // Fitnesses in the fitness cache.
+
+	/**
+	 * Save the state of a random number generator.
+	 *
+	 * @param r - random number generator.
+	 * @return serialized generator.
+	 */
+	static byte[] saveRandom(Random r) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(r);
+		} catch (IOException e) {
+			throw new IllegalStateException("Random number generator can not be saved", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Get the random number generator saved in the checkpoint.
+	 *
+	 * @return random number generator in the saved state.
+	 * @throws IOException if the saved generator is not valid.
+	 */
+	Random restoreRandom() throws IOException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(random))) {
+			return (Random) in.readObject();
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("Checkpoint has no valid random number generator", e);
+		}
+	}
+
+	/**
+	 * Get a hash of the plans of a problem, to check that a checkpoint is resumed
+	 * on the problem it was saved from.
+	 *
+	 * @param problem - problem of the run.
+	 * @return hash
+	 */
+	static long hash(Problem problem) {
+		long hash = problem.getResourceCount();
+		for (int r = 0; r < problem.getResourceCount(); r++) {
+			hash = hash * 31 + problem.getResourceOffset(r);
+		}
+		for (int k = 0; k < problem.getSlotCount(); k++) {
+			hash = hash * 31 + problem.getSlotItem(k);
+			hash = hash * 31 + problem.getSlotTime(k);
+		}
+		return hash;
+	}
+
+	/**
+	 * Write the checkpoint and force it to the disk.
+	 *
+	 * @param file    - file to be written.
+	 * @param problem - problem of the run.
+	 * @throws IOException if the file can not be written.
+	 */
+	void write(Path file, Problem problem) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ChannelWriter out = new ChannelWriter(channel);
+			out.putInt(MAGIC);
+			out.putInt(VERSION);
+			out.putInt(problem.getItemCount());
+			out.putInt(problem.getResourceCount());
+			out.putInt(problem.getSlotCount());
+			out.putLong(hash(problem));
+			out.putInt(cycles);
+			out.putInt(averageResult);
+			out.putInt(bestResult);
+			out.putLong(generations);
+			out.putLong(evaluations);
+			out.putLong(cacheLookups);
+			out.putLong(cacheHits);
+			out.putLong(improvedAt);
+			out.putLong(elapsedNanos);
+			out.putLong(allocatedBytes);
+			out.putInt(random.length);
+			out.putBytes(random);
+			out.putBytes(new byte[(4 - random.length % 4) % 4]); // Keep the ints after the bytes aligned.
+			out.putInt(schedules.length);
+			for (int i = 0; i < schedules.length; i++) {
+				out.putInt(results[i]);
+				out.putInt(evaluated[i] ? EVALUATED : 0);
+				for (int slot : schedules[i]) {
+					out.putInt(slot);
+				}
+			}
+			out.putInt(cacheKeys.length);
+			for (long key : cacheKeys) {
+				out.putLong(key);
+			}
+			for (int value : cacheValues) {
+				out.putInt(value);
+			}
+			out.flush();
+			channel.force(true); // The file must be complete before it replaces the last checkpoint.
+		}
+	}
+
+	/**
+	 * Read a checkpoint saved from a run on a problem.
+	 *
+	 * @param file    - file to be read.
+	 * @param problem - problem of the run being resumed.
+	 * @return checkpoint
+	 * @throws IOException if the file can not be read, is not a valid checkpoint
+	 *                     or was saved from a different problem.
+	 */
+	static Checkpoint read(Path file, Problem problem) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(file + ": file is too large");
+			}
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			try {
+				return read(file, buffer, problem);
+			} catch (RuntimeException e) { // Buffer underflow or bad values.
+				throw new IOException(file + ": not a valid checkpoint (" + e.getMessage() + ")", e);
+			}
+		}
+	}
+
+	/**
+	 * Read the contents of a mapped checkpoint file.
+	 *
+	 * @param file    - file being read (for error messages).
+	 * @param buffer  - mapped file.
+	 * @param problem - problem of the run being resumed.
+	 * @return checkpoint
+	 * @throws IOException if the file is not a valid checkpoint for the problem.
+	 */
+	private static Checkpoint read(Path file, ByteBuffer buffer, Problem problem) throws IOException {
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException(file + ": not a checkpoint file");
+		}
+		int version = buffer.getInt();
+		if (version < 1 || version > VERSION) {
+			throw new IOException(file + ": unsupported version " + version);
+		}
+		if (buffer.getInt() != problem.getItemCount() || buffer.getInt() != problem.getResourceCount()
+				|| buffer.getInt() != problem.getSlotCount() || buffer.getLong() != hash(problem)) {
+			throw new IOException(file + ": checkpoint was saved from a different problem");
+		}
+		Checkpoint checkpoint = new Checkpoint();
+		checkpoint.cycles = buffer.getInt();
+		checkpoint.averageResult = buffer.getInt();
+		checkpoint.bestResult = buffer.getInt();
+		checkpoint.generations = buffer.getLong();
+		checkpoint.evaluations = buffer.getLong();
+		checkpoint.cacheLookups = buffer.getLong();
+		checkpoint.cacheHits = buffer.getLong();
+		checkpoint.improvedAt = buffer.getLong();
+		checkpoint.elapsedNanos = buffer.getLong();
+		if (version >= 2) {
+			checkpoint.allocatedBytes = buffer.getLong(); // Version 1 did not save it, so it stays unknown.
+		}
+		checkpoint.random = new byte[checkCount(buffer.getInt())];
+		buffer.get(checkpoint.random);
+		buffer.position(buffer.position() + (4 - checkpoint.random.length % 4) % 4);
+		int populationSize = checkCount(buffer.getInt());
+		checkpoint.schedules = new int[populationSize][];
+		checkpoint.results = new int[populationSize];
+		checkpoint.evaluated = new boolean[populationSize];
+		for (int i = 0; i < populationSize; i++) {
+			checkpoint.results[i] = buffer.getInt();
+			checkpoint.evaluated[i] = (buffer.getInt() & EVALUATED) != 0;
+			checkpoint.schedules[i] = readInts(buffer, problem.getSlotCount());
+		}
+		int cacheSize = checkCount(buffer.getInt());
+		if (cacheSize > buffer.remaining() / 8) {
+			throw new IllegalArgumentException("file is cut short");
+		}
+		checkpoint.cacheKeys = new long[cacheSize];
+		LongBuffer keys = buffer.slice().asLongBuffer();
+		keys.get(checkpoint.cacheKeys);
+		buffer.position(buffer.position() + cacheSize * 8);
+		checkpoint.cacheValues = readInts(buffer, cacheSize);
+		return checkpoint;
+	}
+
+	/**
+	 * Check that a count read from the file is not negative.
+	 *
+	 * @param count - count read from the file.
+	 * @return count
+	 */
+	private static int checkCount(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("negative count");
+		}
+		return count;
+	}
+
+	/**
+	 * Read an int column through an int view of the mapped file.
+	 *
+	 * @param buffer - mapped file at the start of the column.
+	 * @param count  - number of ints.
+	 * @return column
+	 */
+	private static int[] readInts(ByteBuffer buffer, int count) {
+		if (count > buffer.remaining() / 4) {
+			throw new IllegalArgumentException("file is cut short");
+		}
+		IntBuffer ints = buffer.slice().asIntBuffer();
+		int[] column = new int[count];
+		ints.get(column);
+		buffer.position(buffer.position() + count * 4);
+		return column;
+	}
+
+}
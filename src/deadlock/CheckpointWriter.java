@@ -0,0 +1,90 @@
+package deadlock;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes checkpoints of a run on a background thread, so the Genetic Algorithm
+ * never waits for the disk. Each checkpoint is written to a temporary file next
+ * to the checkpoint file and then renamed over it in one atomic step, so the
+ * checkpoint file is always either the last complete checkpoint or the one
+ * before. At most one checkpoint waits to be written: if the disk falls behind,
+ * a newer checkpoint replaces the waiting one.
+ *
+ * @author Shenal
+ *
+ */
+class CheckpointWriter {
+
+	private Path file = null; // Checkpoint file.
+	private Path temporaryFile = null; // File each checkpoint is written to before it is renamed.
+	private Problem problem = null; // Problem of the run.
+	private ThreadPoolExecutor executor = null; // Single thread writing checkpoints.
+	private volatile IOException error = null; // Last error from writing a checkpoint (null if none).
+
+	/**
+	 * Constructor for CheckpointWriter.
+	 *
+	 * @param file    - checkpoint file.
+	 * @param problem - problem of the run.
+	 */
+	CheckpointWriter(Path file, Problem problem) {
+		this.file = file;
+		this.temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		this.problem = problem;
+		this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(1),
+				task -> {
+					Thread thread = new Thread(task, "checkpoint-writer");
+					thread.setDaemon(true); // A checkpoint must not keep the program running.
+					return thread;
+				}, new ThreadPoolExecutor.DiscardOldestPolicy());
+	}
+
+	/**
+	 * Queue a checkpoint to be written. Returns straight away.
+	 *
+	 * @param checkpoint - state of the run (must not be changed afterwards).
+	 */
+	void submit(Checkpoint checkpoint) {
+		executor.execute(() -> write(checkpoint));
+	}
+
+	/**
+	 * Write a checkpoint to the temporary file and move it over the checkpoint
+	 * file.
+	 *
+	 * @param checkpoint - state of the run.
+	 */
+	private void write(Checkpoint checkpoint) {
+		try {
+			checkpoint.write(temporaryFile, problem);
+			Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			error = null;
+		} catch (IOException e) {
+			error = e; // The run carries on; the last complete checkpoint is kept.
+		}
+	}
+
+	/**
+	 * Wait for the queued checkpoints to be written and stop the writing thread.
+	 *
+	 * @throws IOException if the last checkpoint could not be written.
+	 */
+	void close() throws IOException {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+}
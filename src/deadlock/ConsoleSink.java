@@ -0,0 +1,87 @@
+package deadlock;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Prints the progress of a run: one line for each set of generation metrics
+ * and, optionally, the fitness of every individual in the initial and final
+ * populations. Printing every individual is slow for large populations.
+ *
+ * @author Shenal
+ *
+ */
+public class ConsoleSink implements GenerationListener {
+
+	private PrintStream out = null; // Where the progress is printed.
+	private boolean printIndividuals; // Print the fitness of every individual at the start and end.
+
+	/**
+	 * Constructor for ConsoleSink printing to standard output, including the
+	 * fitness of every individual.
+	 */
+	public ConsoleSink() {
+		this(System.out, true);
+	}
+
+	/**
+	 * Constructor for ConsoleSink.
+	 *
+	 * @param out              - where the progress is printed.
+	 * @param printIndividuals - whether to print the fitness of every individual
+	 *                         at the start and end of the run.
+	 */
+	public ConsoleSink(PrintStream out, boolean printIndividuals) {
+		this.out = out;
+		this.printIndividuals = printIndividuals;
+	}
+
+	@Override
+	public void generationFinished(GenerationMetrics metrics) {
+		StringBuilder line = new StringBuilder();
+		line.append(String.format(Locale.ROOT,
+				"Generation %d: best %d, mean %.1f, worst %d, diversity %.2f, %.0f evaluations/s, cache hit rate %.0f%%",
+				metrics.getGeneration(), metrics.getBestResult(), metrics.getMeanResult(), metrics.getWorstResult(),
+				metrics.getDiversity(), metrics.getEvaluationsPerSecond(), metrics.getCacheHitRate() * 100));
+		line.append(" (ns per generation:");
+		for (GenerationPhase phase : GenerationPhase.values()) {
+			line.append(' ').append(phase.name().toLowerCase(Locale.ROOT)).append(' ')
+					.append(metrics.getPhaseNanos(phase));
+		}
+		out.println(line.append(')'));
+	}
+
+	@Override
+	public void populationCreated(int[] results) {
+		out.println("Start----------------------------------------------------");
+		if (printIndividuals) {
+			out.println("Initial Population Fitnesses --------------------");
+			printResults(results);
+		}
+	}
+
+	@Override
+	public void runFinished(int[] results, RunStatistics statistics) {
+		if (printIndividuals) {
+			out.println("Final Population Fitnesses --------------------");
+			printResults(results); // OUTPUT OF POPULATION SHOULD BE DIFFERENT AFTER GA
+		}
+		out.println("Get Final Solution----------------------------");
+		long millis = statistics.getElapsedNanos() / 1000000;
+		out.println("Total execution time: " + (millis / 1000) + " seconds\t" + millis + " ms");
+		out.println("Allocated per generation: " + statistics.getAllocatedBytesPerGeneration() + " bytes");
+		out.println("Fitness cache hit rate: " + Math.round(statistics.getCacheHitRate() * 100) + "%");
+	}
+
+	/**
+	 * Print the fitness of each individual.
+	 *
+	 * @param results - fitness of each individual.
+	 */
+	private void printResults(int[] results) {
+		for (int result : results) {
+			out.println("Indivdual Result: " + result);
+		}
+	}
+
+}
@@ -0,0 +1,24 @@
+package deadlock;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for evaluating a group of individuals.
+ *
+ * @author Shenal
+ *
+ */
+@Name("deadlock.Evaluation")
+@Label("Evaluation")
+@Description("Fitness evaluation of a group of individuals, using the fitness cache if it is turned on")
+class EvaluationEvent extends SolverEvent {
+
+	@Label("Individuals")
+	int individuals; // Number of individuals to be evaluated.
+
+	@Label("Cache Hits")
+	int cacheHits; // Number of individuals found in the fitness cache.
+
+}
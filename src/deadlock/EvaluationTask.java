@@ -0,0 +1,60 @@
+package deadlock;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/Join task which evaluates a range of individuals from a list. The range
+ * is split in half until it holds little enough work to evaluate on one
+ * thread, using the evaluator belonging to that thread.
+ *
+ * @author Shenal
+ *
+ */
+class EvaluationTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private List<Manager> individuals = null; // Individuals to be evaluated.
+	private int start; // Index of first individual in range.
+	private int end; // Index after last individual in range.
+	private int grain; // Largest number of individuals evaluated without splitting.
+	private ThreadLocal<ScheduleEvaluator> evaluators = null; // Evaluator for each thread.
+
+	/**
+	 * Constructor for EvaluationTask.
+	 *
+	 * @param individuals - individuals to be evaluated.
+	 * @param start       - index of first individual in range.
+	 * @param end         - index after last individual in range.
+	 * @param grain       - largest number of individuals evaluated without
+	 *                    splitting.
+	 * @param evaluators  - evaluator for each thread.
+	 */
+	EvaluationTask(List<Manager> individuals, int start, int end, int grain,
+			ThreadLocal<ScheduleEvaluator> evaluators) {
+		this.individuals = individuals;
+		this.start = start;
+		this.end = end;
+		this.grain = grain;
+		this.evaluators = evaluators;
+	}
+
+	/**
+	 * Evaluate the range, splitting it between threads if it is too large.
+	 */
+	@Override
+	protected void compute() {
+		if (end - start <= grain) {
+			ScheduleEvaluator evaluator = evaluators.get();
+			for (int i = start; i < end; i++) {
+				individuals.get(i).calculateScheduleTime(evaluator);
+			}
+			return;
+		}
+		int middle = (start + end) >>> 1;
+		invokeAll(new EvaluationTask(individuals, start, middle, grain, evaluators),
+				new EvaluationTask(individuals, middle, end, grain, evaluators));
+	}
+
+}
@@ -0,0 +1,116 @@
+package deadlock;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of fitness values keyed by the fingerprint of a Schedule, so
+ * that a child which is the same as an individual seen before does not need to
+ * be evaluated again. Each fingerprint has one place in the cache (direct
+ * mapped) and a new entry simply replaces whatever was there before. A cache
+ * belongs to one population and must only be used from the thread running it.
+ *
+ * A fingerprint is the XOR of one 64-bit hash for each Schedule index and the
+ * Timeslot placed there, so it can be updated in constant time whenever one
+ * index changes. Interchangeable Timeslots (same Item and time in the same
+ * Plan) hash the same, as they give the same fitness.
+ *
+ * @author Shenal
+ *
+ */
+class FitnessCache {
+
+	private long[] keys = null; // Fingerprint stored in each entry.
+	private int[] values = null; // Fitness stored in each entry (-1 if empty).
+	private int mask; // Entries minus one (entries is a power of two).
+
+	/**
+	 * Constructor for FitnessCache.
+	 *
+	 * @param capacity - number of entries (rounded up to a power of two).
+	 */
+	FitnessCache(int capacity) {
+		int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		keys = new long[size];
+		values = new int[size];
+		Arrays.fill(values, -1);
+		mask = size - 1;
+	}
+
+	/**
+	 * Get the fitness stored for a fingerprint.
+	 *
+	 * @param fingerprint - fingerprint of a schedule.
+	 * @return fitness, or -1 if it is not in the cache.
+	 */
+	int get(long fingerprint) {
+		int index = index(fingerprint);
+		return keys[index] == fingerprint ? values[index] : -1;
+	}
+
+	/**
+	 * Store the fitness for a fingerprint, replacing the entry in its place.
+	 *
+	 * @param fingerprint - fingerprint of a schedule.
+	 * @param fitness     - fitness of the schedule.
+	 */
+	void put(long fingerprint, int fitness) {
+		int index = index(fingerprint);
+		keys[index] = fingerprint;
+		values[index] = fitness;
+	}
+
+	/**
+	 * Copy every entry of the cache into a checkpoint.
+	 *
+	 * @param checkpoint - checkpoint of the run.
+	 */
+	void save(Checkpoint checkpoint) {
+		checkpoint.cacheKeys = keys.clone();
+		checkpoint.cacheValues = values.clone();
+	}
+
+	/**
+	 * Put back the entries saved in a checkpoint. A cache of the same size gets
+	 * exactly the saved entries.
+	 *
+	 * @param checkpoint - checkpoint of the run.
+	 */
+	void restore(Checkpoint checkpoint) {
+		if (checkpoint.cacheKeys.length == keys.length) {
+			System.arraycopy(checkpoint.cacheKeys, 0, keys, 0, keys.length);
+			System.arraycopy(checkpoint.cacheValues, 0, values, 0, values.length);
+			return;
+		}
+		for (int i = 0; i < checkpoint.cacheKeys.length; i++) {
+			if (checkpoint.cacheValues[i] >= 0) {
+				put(checkpoint.cacheKeys[i], checkpoint.cacheValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * Get the place of a fingerprint in the cache.
+	 *
+	 * @param fingerprint - fingerprint of a schedule.
+	 * @return index of the entry.
+	 */
+	private int index(long fingerprint) {
+		return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+	}
+
+	/**
+	 * Get the hash of one Timeslot placed at one Schedule index (SplitMix64
+	 * finaliser).
+	 *
+	 * @param index     - schedule index.
+	 * @param slotClass - interchangeable timeslot class placed at the index.
+	 * @return hash to be XORed into the fingerprint.
+	 */
+	static long hash(int index, int slotClass) {
+		long z = (((long) index << 32) | slotClass) + 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+}
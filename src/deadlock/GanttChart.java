@@ -0,0 +1,424 @@
+package deadlock;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Gantt chart of the Schedule of every Resource, drawn on a Canvas. Only the
+ * rows and the time range in view are drawn, and Timeslots smaller than a pixel
+ * are skipped once their pixel is painted, so drawing costs about the same for
+ * thousands of Resources and hundreds of thousands of Timeslots as for a small
+ * problem. Every Item gets its own generated colour.
+ *
+ * Scroll to zoom the time axis, Ctrl+Scroll to change the row height, drag to
+ * pan and double click to see the whole Schedule again. Hovering over a
+ * Timeslot shows its Item and times.
+ *
+ * @author Shenal
+ *
+ */
+class GanttChart extends Region {
+
+	private static final double TITLE_HEIGHT = 34; // Height of title above the chart.
+	private static final double AXIS_HEIGHT = 26; // Height of time axis above the rows.
+	private static final double STATUS_HEIGHT = 26; // Height of status line below the rows.
+	private static final double NAME_WIDTH = 90; // Width of Resource names left of the rows.
+	private static final double MIN_ROW_HEIGHT = 1; // Smallest row height.
+	private static final double MAX_ROW_HEIGHT = 80; // Largest row height.
+	private static final double MAX_TIME_SCALE = 200; // Most pixels for one unit of time.
+	private static final double TICK_SPACING = 80; // Least pixels between two time axis ticks.
+	private static final double GOLDEN_ANGLE = 137.50776; // Hue step between the colours of Items.
+
+	private Canvas canvas = new Canvas(); // Canvas the chart is drawn on.
+	private String title = null; // Title of chart.
+	private String[] resourceNames = null; // Name of Resource in each row.
+	private String[] itemNames = null; // Name of each Item.
+	private Color[] itemColors = null; // Colour of each Item.
+	private int[] rowOffsets = null; // Index of first Timeslot of each row (and total number at the end).
+	private int[] slotStarts = null; // Start time of each Timeslot (in order of rows, then time).
+	private int[] slotEnds = null; // End time of each Timeslot.
+	private int[] slotItems = null; // Item index of each Timeslot.
+	private int makespan = 0; // Total time of the Schedule.
+
+	private double timeOffset = 0; // Time at the left edge of the rows.
+	private double timeScale = 1; // Pixels for one unit of time.
+	private double scrollY = 0; // Pixels of rows scrolled off the top.
+	private double rowHeight = 24; // Height of each row.
+	private boolean fitted = false; // Whether the chart has been fitted to its size yet.
+	private double dragX, dragY; // Last mouse position while dragging.
+	private int hoverSlot = -1; // Index of Timeslot described in the status line (-1 if none).
+	private String hoverText = null; // Description of Timeslot under the mouse (null if none).
+
+	/**
+	 * Constructor for GanttChart. Delay Timeslots are left as gaps.
+	 *
+	 * @param title     - title of chart.
+	 * @param items     - list of Items (for colours and names).
+	 * @param resources - list of Resources with their Schedules.
+	 */
+	GanttChart(String title, List<Item> items, List<Resource> resources) {
+		this.title = title;
+		// Number the Items by name, adding any Item missing from the list.
+		Map<String, Integer> itemIndexes = new HashMap<String, Integer>();
+		for (Item item : items) {
+			itemIndexes.putIfAbsent(item.getName(), itemIndexes.size());
+		}
+		int slotCount = 0;
+		for (Resource r : resources) {
+			for (Timeslot t : r.getSchedule()) {
+				if (!(t.isDelay())) {
+					itemIndexes.putIfAbsent(t.getItemName(), itemIndexes.size());
+					slotCount++;
+				}
+			}
+		}
+		itemNames = new String[itemIndexes.size()];
+		itemColors = new Color[itemIndexes.size()];
+		for (Map.Entry<String, Integer> entry : itemIndexes.entrySet()) {
+			itemNames[entry.getValue()] = entry.getKey();
+			itemColors[entry.getValue()] = createColor(entry.getValue());
+		}
+
+		resourceNames = new String[resources.size()];
+		rowOffsets = new int[resources.size() + 1];
+		slotStarts = new int[slotCount];
+		slotEnds = new int[slotCount];
+		slotItems = new int[slotCount];
+		int k = 0; // Index of next Timeslot.
+		for (int row = 0; row < resources.size(); row++) {
+			resourceNames[row] = resources.get(row).getName();
+			rowOffsets[row] = k;
+			int time = 0; // Time at which the previous Timeslot finished.
+			for (Timeslot t : resources.get(row).getSchedule()) {
+				if (!(t.isDelay())) {
+					slotStarts[k] = time;
+					slotEnds[k] = time + t.getTime();
+					slotItems[k] = itemIndexes.get(t.getItemName());
+					k++;
+				}
+				time += t.getTime();
+			}
+			makespan = Math.max(makespan, time);
+		}
+		rowOffsets[resources.size()] = k;
+
+		getChildren().add(canvas);
+		setOnScroll(this::zoom);
+		setOnMousePressed(this::startDrag);
+		setOnMouseDragged(this::drag);
+		setOnMouseMoved(this::hover);
+		setOnMouseExited(e -> clearHover());
+		setOnMouseClicked(e -> {
+			if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+				fit();
+				draw();
+			}
+		});
+	}
+
+	/**
+	 * Create a distinct colour for an Item. Hues are spread by the golden angle so
+	 * neighbouring Items never get similar colours, with the brightness varied for
+	 * Items whose hues come round again.
+	 *
+	 * @param item - Item index.
+	 * @return colour
+	 */
+	static Color createColor(int item) {
+		double hue = (item * GOLDEN_ANGLE) % 360;
+		double brightness = 0.95 - 0.25 * ((item / 5) % 3) / 2.0;
+		return Color.hsb(hue, 0.7, brightness);
+	}
+
+	/**
+	 * Resize canvas to the chart and draw it again.
+	 */
+	@Override
+	protected void layoutChildren() {
+		canvas.setWidth(getWidth());
+		canvas.setHeight(getHeight());
+		if (!(fitted) && getWidth() > NAME_WIDTH && getHeight() > TITLE_HEIGHT + AXIS_HEIGHT + STATUS_HEIGHT) {
+			fit();
+			fitted = true;
+		}
+		draw();
+	}
+
+	/**
+	 * Zoom out to the whole Schedule, with rows as tall as fits (within limits).
+	 */
+	private void fit() {
+		timeOffset = 0;
+		timeScale = getPlotWidth() / Math.max(1, makespan);
+		rowHeight = Math.max(MIN_ROW_HEIGHT, Math.min(40, getPlotHeight() / Math.max(1, resourceNames.length)));
+		scrollY = 0;
+		clamp();
+	}
+
+	/**
+	 * Keep the view inside the Schedule: no further out than the whole Schedule
+	 * and no panning past its ends.
+	 */
+	private void clamp() {
+		timeScale = Math.max(getPlotWidth() / Math.max(1, makespan), Math.min(MAX_TIME_SCALE, timeScale));
+		timeOffset = Math.max(0, Math.min(makespan - getPlotWidth() / timeScale, timeOffset));
+		rowHeight = Math.max(MIN_ROW_HEIGHT, Math.min(MAX_ROW_HEIGHT, rowHeight));
+		scrollY = Math.max(0, Math.min(resourceNames.length * rowHeight - getPlotHeight(), scrollY));
+	}
+
+	/**
+	 * Get width of the area the rows are drawn in.
+	 *
+	 * @return width in pixels.
+	 */
+	private double getPlotWidth() {
+		return Math.max(1, getWidth() - NAME_WIDTH);
+	}
+
+	/**
+	 * Get height of the area the rows are drawn in.
+	 *
+	 * @return height in pixels.
+	 */
+	private double getPlotHeight() {
+		return Math.max(1, getHeight() - TITLE_HEIGHT - AXIS_HEIGHT - STATUS_HEIGHT);
+	}
+
+	/**
+	 * Zoom the time axis around the mouse when scrolling, or the row height with
+	 * Ctrl held down.
+	 *
+	 * @param e - scroll event.
+	 */
+	private void zoom(ScrollEvent e) {
+		double factor = Math.pow(1.0015, e.getDeltaY());
+		if (e.isControlDown()) {
+			double y = e.getY() - TITLE_HEIGHT - AXIS_HEIGHT; // Mouse position in the rows.
+			double row = (scrollY + y) / rowHeight; // Row under the mouse.
+			rowHeight *= factor;
+			clamp();
+			scrollY = row * rowHeight - y;
+		} else {
+			double x = e.getX() - NAME_WIDTH; // Mouse position in the rows.
+			double time = timeOffset + x / timeScale; // Time under the mouse.
+			timeScale *= factor;
+			clamp();
+			timeOffset = time - x / timeScale;
+		}
+		clamp();
+		draw();
+		e.consume();
+	}
+
+	/**
+	 * Remember where a drag starts.
+	 *
+	 * @param e - mouse event.
+	 */
+	private void startDrag(MouseEvent e) {
+		dragX = e.getX();
+		dragY = e.getY();
+	}
+
+	/**
+	 * Pan the chart with the mouse.
+	 *
+	 * @param e - mouse event.
+	 */
+	private void drag(MouseEvent e) {
+		timeOffset -= (e.getX() - dragX) / timeScale;
+		scrollY -= e.getY() - dragY;
+		dragX = e.getX();
+		dragY = e.getY();
+		clamp();
+		draw();
+	}
+
+	/**
+	 * Describe the Timeslot under the mouse in the status line. The chart is
+	 * only drawn again when the mouse moves onto another Timeslot or off every
+	 * Timeslot (onto a gap, an empty row or out of the plot).
+	 *
+	 * @param e - mouse event.
+	 */
+	private void hover(MouseEvent e) {
+		double x = e.getX() - NAME_WIDTH;
+		double y = e.getY() - TITLE_HEIGHT - AXIS_HEIGHT;
+		if (x < 0 || y < 0 || y >= getPlotHeight()) {
+			clearHover();
+			return;
+		}
+		int row = (int) ((scrollY + y) / rowHeight);
+		if (row >= resourceNames.length) {
+			clearHover();
+			return;
+		}
+		double time = timeOffset + x / timeScale;
+		int k = findSlot(row, time);
+		if (k >= rowOffsets[row + 1] || slotStarts[k] > time) {
+			clearHover(); // Gap (Delay) or empty part of the row.
+		} else if (k != hoverSlot) {
+			hoverSlot = k;
+			hoverText = resourceNames[row] + ": " + itemNames[slotItems[k]] + " from " + slotStarts[k] + " to "
+					+ slotEnds[k];
+			draw();
+		}
+	}
+
+	/**
+	 * Stop describing a Timeslot once the mouse is off it, drawing the chart
+	 * again only if one was described.
+	 */
+	private void clearHover() {
+		if (hoverSlot >= 0) {
+			hoverSlot = -1;
+			hoverText = null;
+			draw();
+		}
+	}
+
+	/**
+	 * Find the first Timeslot of a row which ends after a time, by binary search
+	 * (Timeslots of a row are in time order).
+	 *
+	 * @param row  - row to search.
+	 * @param time - time to search for.
+	 * @return index of Timeslot (end of row if there is none).
+	 */
+	private int findSlot(int row, double time) {
+		int low = rowOffsets[row];
+		int high = rowOffsets[row + 1];
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (slotEnds[middle] <= time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Draw the rows and time range in view, the time axis and the status line.
+	 */
+	private void draw() {
+		GraphicsContext g = canvas.getGraphicsContext2D();
+		double width = getWidth();
+		double height = getHeight();
+		double top = TITLE_HEIGHT + AXIS_HEIGHT; // Top of the rows.
+		double plotHeight = getPlotHeight();
+		g.setFill(Color.WHITE);
+		g.fillRect(0, 0, width, height);
+
+		// Draw title
+		g.setFill(Color.BLACK);
+		g.setFont(Font.font(22));
+		g.setTextAlign(TextAlignment.CENTER);
+		g.setTextBaseline(VPos.CENTER);
+		g.fillText(title, width / 2, TITLE_HEIGHT / 2);
+
+		drawAxis(g, width, top, plotHeight);
+
+		// Draw rows in view
+		g.save();
+		g.beginPath();
+		g.rect(0, top, width, plotHeight);
+		g.clip();
+		int firstRow = (int) (scrollY / rowHeight);
+		int lastRow = Math.min(resourceNames.length - 1, (int) ((scrollY + plotHeight) / rowHeight));
+		double endTime = timeOffset + getPlotWidth() / timeScale; // Time at the right edge of the rows.
+		double gap = rowHeight >= 6 ? rowHeight * 0.2 : 0; // Space between rows.
+		g.setFont(Font.font(Math.min(14, rowHeight * 0.6)));
+		for (int row = firstRow; row <= lastRow; row++) {
+			double y = top + row * rowHeight - scrollY;
+			int lastPixel = Integer.MIN_VALUE; // Last pixel column painted in this row.
+			for (int k = findSlot(row, timeOffset); k < rowOffsets[row + 1] && slotStarts[k] < endTime; k++) {
+				double x0 = Math.max(NAME_WIDTH, NAME_WIDTH + (slotStarts[k] - timeOffset) * timeScale);
+				double x1 = Math.min(width, NAME_WIDTH + (slotEnds[k] - timeOffset) * timeScale);
+				if ((int) x1 <= lastPixel) {
+					continue; // Timeslot is inside a pixel already painted.
+				}
+				lastPixel = (int) x1;
+				g.setFill(itemColors[slotItems[k]]);
+				g.fillRect(x0, y + gap / 2, Math.max(1, x1 - x0), rowHeight - gap);
+				if (rowHeight >= 14 && x1 - x0 >= 30) { // Name fits inside the Timeslot.
+					g.setFill(Color.BLACK);
+					g.fillText(itemNames[slotItems[k]], (x0 + x1) / 2, y + rowHeight / 2, x1 - x0);
+				}
+			}
+		}
+
+		// Draw Resource names
+		g.setFill(Color.WHITE);
+		g.fillRect(0, top, NAME_WIDTH, plotHeight);
+		if (rowHeight >= 8) {
+			g.setFill(Color.BLACK);
+			g.setTextAlign(TextAlignment.RIGHT);
+			for (int row = firstRow; row <= lastRow; row++) {
+				g.fillText(resourceNames[row], NAME_WIDTH - 8, top + row * rowHeight - scrollY + rowHeight / 2,
+						NAME_WIDTH - 12);
+			}
+		}
+		g.restore();
+
+		// Draw status line
+		g.setFill(Color.BLACK);
+		g.setFont(Font.font(14));
+		g.setTextAlign(TextAlignment.LEFT);
+		g.fillText(hoverText != null ? hoverText
+				: "Makespan: " + makespan + "   Scroll: zoom time   Ctrl+Scroll: row height   Drag: pan"
+						+ "   Double click: whole schedule",
+				8, height - STATUS_HEIGHT / 2);
+	}
+
+	/**
+	 * Draw the time axis, with ticks at round numbers and grid lines across the
+	 * rows.
+	 *
+	 * @param g          - graphics context of canvas.
+	 * @param width      - width of chart.
+	 * @param top        - top of the rows.
+	 * @param plotHeight - height of the rows.
+	 */
+	private void drawAxis(GraphicsContext g, double width, double top, double plotHeight) {
+		// Use the smallest step of 1, 2 or 5 times a power of ten that leaves room for
+		// the labels.
+		double minStep = Math.max(1, TICK_SPACING / timeScale); // Least time between two ticks.
+		double power = Math.pow(10, Math.floor(Math.log10(minStep)));
+		double step = power;
+		if (step < minStep) {
+			step = 2 * power;
+		}
+		if (step < minStep) {
+			step = 5 * power;
+		}
+		if (step < minStep) {
+			step = 10 * power;
+		}
+		g.setFont(Font.font(13));
+		g.setTextAlign(TextAlignment.CENTER);
+		g.setLineWidth(1);
+		for (double time = Math.ceil(timeOffset / step) * step; time <= timeOffset + getPlotWidth() / timeScale
+				&& time <= makespan; time += step) {
+			double x = Math.floor(NAME_WIDTH + (time - timeOffset) * timeScale) + 0.5;
+			g.setStroke(Color.LIGHTGRAY);
+			g.strokeLine(x, top, x, top + plotHeight);
+			g.setFill(Color.BLACK);
+			g.fillText(Long.toString((long) time), x, TITLE_HEIGHT + AXIS_HEIGHT / 2);
+		}
+	}
+
+}
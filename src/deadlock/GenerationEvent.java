@@ -0,0 +1,21 @@
+package deadlock;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for one whole generation.
+ *
+ * @author Shenal
+ *
+ */
+@Name("deadlock.Generation")
+@Label("Generation")
+@Description("One generation of the Genetic Algorithm, from parent selection to survivor selection")
+class GenerationEvent extends SolverEvent {
+
+	@Label("Best Makespan")
+	int bestResult; // Best fitness found so far.
+
+}
@@ -0,0 +1,40 @@
+package deadlock;
+
+/**
+ * Receives metrics from a run of the Genetic Algorithm. Metrics are sampled
+ * rather than sent for every generation, so listening costs the run almost
+ * nothing. Listeners are called on the thread running the population, so they
+ * should return quickly; a listener shared by several populations (islands or
+ * a batch) is called from several threads.
+ *
+ * @author Shenal
+ *
+ */
+@FunctionalInterface
+public interface GenerationListener {
+
+	/**
+	 * Receive the metrics for the generations since the last call.
+	 *
+	 * @param metrics - metrics of the run at the end of a generation.
+	 */
+	void generationFinished(GenerationMetrics metrics);
+
+	/**
+	 * Receive the fitness of every individual in the initial population.
+	 *
+	 * @param results - fitness of each individual.
+	 */
+	default void populationCreated(int[] results) {
+	}
+
+	/**
+	 * Receive the fitness of every individual in the final population.
+	 *
+	 * @param results    - fitness of each individual.
+	 * @param statistics - statistics of the whole run.
+	 */
+	default void runFinished(int[] results, RunStatistics statistics) {
+	}
+
+}
@@ -0,0 +1,149 @@
+package deadlock;
+
+/**
+ * Metrics of a run of the Genetic Algorithm at the end of one generation.
+ * Rates are measured over the generations since the previous metrics, and the
+ * phase times are averages over a sample of those generations.
+ *
+ * @author Shenal
+ *
+ */
+public class GenerationMetrics {
+
+	private long generation; // Generations finished.
+	private int bestResult; // Best fitness in the population.
+	private double meanResult; // Mean fitness of the population.
+	private int worstResult; // Worst fitness in the population.
+	private double diversity; // Fraction of individuals with a different Schedule.
+	private long evaluations; // Individuals evaluated in the whole run.
+	private double evaluationsPerSecond; // Evaluations per second since the previous metrics.
+	private double cacheHitRate; // Fitness cache hit rate since the previous metrics.
+	private long elapsedNanos; // Run time so far.
+	private long[] phaseNanos = null; // Average time of each phase in one generation.
+
+	/**
+	 * Constructor for GenerationMetrics.
+	 *
+	 * @param generation           - generations finished.
+	 * @param bestResult           - best fitness in the population.
+	 * @param meanResult           - mean fitness of the population.
+	 * @param worstResult          - worst fitness in the population.
+	 * @param diversity            - fraction of individuals with a different
+	 *                             Schedule.
+	 * @param evaluations          - individuals evaluated in the whole run.
+	 * @param evaluationsPerSecond - evaluations per second since the previous
+	 *                             metrics.
+	 * @param cacheHitRate         - fitness cache hit rate since the previous
+	 *                             metrics.
+	 * @param elapsedNanos         - run time so far.
+	 * @param phaseNanos           - average time of each phase in one generation,
+	 *                             indexed by GenerationPhase ordinal.
+	 */
+	GenerationMetrics(long generation, int bestResult, double meanResult, int worstResult, double diversity,
+			long evaluations, double evaluationsPerSecond, double cacheHitRate, long elapsedNanos, long[] phaseNanos) {
+		this.generation = generation;
+		this.bestResult = bestResult;
+		this.meanResult = meanResult;
+		this.worstResult = worstResult;
+		this.diversity = diversity;
+		this.evaluations = evaluations;
+		this.evaluationsPerSecond = evaluationsPerSecond;
+		this.cacheHitRate = cacheHitRate;
+		this.elapsedNanos = elapsedNanos;
+		this.phaseNanos = phaseNanos;
+	}
+
+	/**
+	 * Get number of generations finished.
+	 *
+	 * @return generation
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Get the best fitness (shortest makespan) in the population.
+	 *
+	 * @return bestResult
+	 */
+	public int getBestResult() {
+		return bestResult;
+	}
+
+	/**
+	 * Get the mean fitness of the population.
+	 *
+	 * @return meanResult
+	 */
+	public double getMeanResult() {
+		return meanResult;
+	}
+
+	/**
+	 * Get the worst fitness (longest makespan) in the population.
+	 *
+	 * @return worstResult
+	 */
+	public int getWorstResult() {
+		return worstResult;
+	}
+
+	/**
+	 * Get the diversity of the population: the number of different Schedules
+	 * (interchangeable Timeslots count as the same) divided by the population
+	 * size.
+	 *
+	 * @return diversity from 1/populationSize (all the same) to 1 (all different).
+	 */
+	public double getDiversity() {
+		return diversity;
+	}
+
+	/**
+	 * Get number of individuals evaluated in the whole run.
+	 *
+	 * @return evaluations
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Get evaluations per second since the previous metrics.
+	 *
+	 * @return evaluationsPerSecond
+	 */
+	public double getEvaluationsPerSecond() {
+		return evaluationsPerSecond;
+	}
+
+	/**
+	 * Get the fitness cache hit rate since the previous metrics.
+	 *
+	 * @return cacheHitRate (0 if the cache is off or was not used).
+	 */
+	public double getCacheHitRate() {
+		return cacheHitRate;
+	}
+
+	/**
+	 * Get run time so far.
+	 *
+	 * @return elapsed time in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Get the average time one generation spent in a phase.
+	 *
+	 * @param phase - phase of a generation.
+	 * @return time in nanoseconds (0 if no generation was timed).
+	 */
+	public long getPhaseNanos(GenerationPhase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+}
@@ -0,0 +1,23 @@
+package deadlock;
+
+/**
+ * Phases of one generation of the Genetic Algorithm, which are timed
+ * separately in the generation metrics.
+ *
+ * @author Shenal
+ *
+ */
+public enum GenerationPhase {
+
+	// Picking parents out of the population.
+	SELECTION,
+	// Copying parents into children and swapping one Resource Schedule.
+	CROSSOVER,
+	// Swapping Timeslots in the children.
+	MUTATION,
+	// Calculating the fitness of the children.
+	EVALUATION,
+	// Choosing which individuals survive into the population.
+	REPLACEMENT
+
+}
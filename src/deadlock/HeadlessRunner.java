@@ -0,0 +1,406 @@
+package deadlock;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line entry point for running the Deadlock Prevention Genetic
+ * Algorithm without the GUI (and without JavaFX). The problem is either read
+ * from a plan CSV file or generated randomly, and the best Schedule found is
+ * written with the run statistics to standard output or a file. The plan may
+ * also be a binary problem file (see ProblemFile), and the problem and best
+ * Schedule can be saved as one for reloading later. In batch mode
+ * every plan file in a directory is solved, and one result line is written for
+ * each problem as it finishes. A long run can be checkpointed and, after being
+ * stopped, resumed with the same options to give exactly the same result.
+ *
+ * <pre>
+ * java deadlock.HeadlessRunner --plan plan.csv --seed 1 --time-limit 5000 --save solved.dlp
+ * java deadlock.HeadlessRunner --items 50 --resources 200 --threads 4 --out best.txt
+ * java deadlock.HeadlessRunner --batch plans/ --concurrency 8 --time-limit 60000
+ * java deadlock.HeadlessRunner --plan plan.csv --seed 1 --generations 1000000 --resume run.ckpt
+ * java deadlock.HeadlessRunner --plan plan.csv --population 400 --islands 4 --topology random
+ * java deadlock.HeadlessRunner --plan plan.csv --mode generational --offspring 50
+ * </pre>
+ *
+ * @author Shenal
+ *
+ */
+public class HeadlessRunner {
+
+	private static final String USAGE = "Usage: java deadlock.HeadlessRunner"
+			+ " (--plan FILE | --items N --resources N | --batch DIR [--concurrency N])\n"
+			+ "  [--population N] [--seed N] [--threads N] [--out FILE] [--save FILE]\n"
+			+ "  [--generations N] [--time-limit MS] [--evaluations N] [--stagnation N] [--target MAKESPAN]\n"
+			+ "  [--checkpoint FILE | --resume FILE] [--checkpoint-interval GENERATIONS] [--progress MS]\n"
+			+ "  [--islands N] [--migration-interval GENERATIONS] [--migrants N] [--topology ring|random]\n"
+			+ "  [--mode steady-state|generational] [--offspring N]";
+
+	private String planFile = null; // Plan CSV file (null for a random problem).
+	private String batchDirectory = null; // Directory of plan files in batch mode (null for one problem).
+	private int concurrency = Runtime.getRuntime().availableProcessors(); // Problems solved at once in batch mode.
+	private int itemCount = 0; // Number of items in a random problem.
+	private int resourceCount = 0; // Number of resources in a random problem.
+	private String outFile = null; // File for the result (null for standard output).
+	private String saveFile = null; // Binary file for the problem and best schedule (null to not save).
+	private int threads = 1; // Threads evaluating individuals (1 to evaluate serially).
+	private SolverSettings settings = new SolverSettings(); // Settings for the run.
+
+	/**
+	 * Run the solver from the command line.
+	 *
+	 * @param args - command line options.
+	 */
+	public static void main(String[] args) {
+		HeadlessRunner runner = new HeadlessRunner();
+		try {
+			runner.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		try {
+			runner.run();
+		} catch (IOException e) {
+			System.err.println("ERROR: " + e.getClass().getSimpleName() + ": " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Read the command line options.
+	 *
+	 * @param args - command line options.
+	 * @throws IllegalArgumentException if an option is missing or not valid.
+	 */
+	void parse(String[] args) {
+		List<TerminationPolicy> policies = new ArrayList<TerminationPolicy>();
+		settings.setVerbose(false);
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for " + option);
+			}
+			String value = args[++i];
+			switch (option) {
+			case "--plan":
+				planFile = value;
+				break;
+			case "--batch":
+				batchDirectory = value;
+				break;
+			case "--concurrency":
+				concurrency = parseInt(option, value);
+				break;
+			case "--items":
+				itemCount = parseInt(option, value);
+				break;
+			case "--resources":
+				resourceCount = parseInt(option, value);
+				break;
+			case "--population":
+				settings.setPopulationSize(parseInt(option, value));
+				break;
+			case "--seed":
+				settings.setSeed(parseLong(option, value));
+				break;
+			case "--threads":
+				threads = parseInt(option, value);
+				break;
+			case "--out":
+				outFile = value;
+				break;
+			case "--save":
+				saveFile = value;
+				break;
+			case "--checkpoint":
+				settings.setCheckpointFile(Paths.get(value));
+				break;
+			case "--resume": // Checkpoint file to carry on from, and to keep checkpointing to.
+				settings.setCheckpointFile(Paths.get(value));
+				settings.setResume(true);
+				break;
+			case "--progress": // Print generation metrics to standard error.
+				settings.addListener(new ConsoleSink(System.err, false));
+				settings.setMetricsInterval(parseLong(option, value));
+				break;
+			case "--checkpoint-interval":
+				settings.setCheckpointInterval(parseInt(option, value));
+				break;
+			case "--islands": // Population is shared between the islands.
+				settings.setIslandCount(parseInt(option, value));
+				break;
+			case "--migration-interval":
+				settings.setMigrationInterval(parseInt(option, value));
+				break;
+			case "--migrants":
+				settings.setMigrantCount(parseInt(option, value));
+				break;
+			case "--topology":
+				settings.setTopology(parseEnum(MigrationTopology.class, option, value));
+				break;
+			case "--mode":
+				settings.setMode(parseEnum(BreedingMode.class, option, value));
+				break;
+			case "--offspring": // Children per generation in generational mode.
+				settings.setOffspringCount(parseInt(option, value));
+				break;
+			case "--generations":
+				policies.add(TerminationPolicy.generations(parseLong(option, value)));
+				break;
+			case "--time-limit":
+				policies.add(TerminationPolicy.timeLimit(parseLong(option, value)));
+				break;
+			case "--evaluations":
+				policies.add(TerminationPolicy.evaluations(parseLong(option, value)));
+				break;
+			case "--stagnation":
+				policies.add(TerminationPolicy.stagnation(parseLong(option, value)));
+				break;
+			case "--target":
+				policies.add(TerminationPolicy.targetMakespan(parseInt(option, value)));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+		if (planFile == null && batchDirectory == null && (itemCount <= 0 || resourceCount <= 0)) {
+			throw new IllegalArgumentException("Give either --plan, --batch or both --items and --resources");
+		}
+		if (batchDirectory != null && settings.getCheckpointFile() != null) {
+			throw new IllegalArgumentException("Checkpoints can not be used in batch mode");
+		}
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("Concurrency must be at least 1");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Threads must be at least 1");
+		}
+		if (settings.getPopulationSize() <= 5) {
+			throw new IllegalArgumentException("Population size must be greater than 5");
+		}
+		if (settings.getIslandCount() < 1) {
+			throw new IllegalArgumentException("Islands must be at least 1");
+		}
+		if (settings.getPopulationSize() / settings.getIslandCount() <= 5) {
+			throw new IllegalArgumentException("Island population size must be greater than 5");
+		}
+		if (settings.getOffspringCount() < 1) {
+			throw new IllegalArgumentException("Offspring must be at least 1");
+		}
+		if (settings.getMigrationInterval() < 1 || settings.getMigrantCount() < 0) {
+			throw new IllegalArgumentException("Migration interval must be at least 1 and migrants at least 0");
+		}
+		if (!(policies.isEmpty())) {
+			settings.setTermination(TerminationPolicy.anyOf(policies.toArray(new TerminationPolicy[0])));
+		}
+	}
+
+	/**
+	 * Read the whole number value of an option.
+	 *
+	 * @param option - name of the option.
+	 * @param value  - value given for the option.
+	 * @return value as an int.
+	 * @throws IllegalArgumentException if the value is not a number.
+	 */
+	private static int parseInt(String option, String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Value for " + option + " is not a number: " + value);
+		}
+	}
+
+	/**
+	 * Read the whole number value of an option.
+	 *
+	 * @param option - name of the option.
+	 * @param value  - value given for the option.
+	 * @return value as a long.
+	 * @throws IllegalArgumentException if the value is not a number.
+	 */
+	private static long parseLong(String option, String value) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Value for " + option + " is not a number: " + value);
+		}
+	}
+
+	/**
+	 * Read the value of an option naming a constant of an enum, e.g. "random"
+	 * for MigrationTopology.RANDOM. Dashes stand for underscores.
+	 *
+	 * @param type   - enum class.
+	 * @param option - name of the option.
+	 * @param value  - value given for the option.
+	 * @return enum constant.
+	 * @throws IllegalArgumentException if the value is not a constant of the enum.
+	 */
+	private static <E extends Enum<E>> E parseEnum(Class<E> type, String option, String value) {
+		try {
+			return Enum.valueOf(type, value.toUpperCase(Locale.ROOT).replace('-', '_'));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Value for " + option + " is not valid: " + value);
+		}
+	}
+
+	/**
+	 * Build the problem, run the Genetic Algorithm and write the result.
+	 *
+	 * @throws IOException if the plan can not be read or the result written.
+	 */
+	void run() throws IOException {
+		if (threads > 1) {
+			settings.setPool(new ForkJoinPool(threads)); // Owned by the runner, so shut down here.
+		}
+		try {
+			if (batchDirectory != null) {
+				runBatch();
+			} else {
+				runProblem();
+			}
+		} finally {
+			shutdownPool();
+		}
+	}
+
+	/**
+	 * Build the one problem, solve it and write the best Schedule.
+	 *
+	 * @throws IOException if the plan can not be read or the result written.
+	 */
+	private void runProblem() throws IOException {
+		Problem problem;
+		if (planFile != null) {
+			problem = ProblemFile.readProblem(Paths.get(planFile));
+		} else {
+			// Seeded runs also get the same random problem.
+			Random r = settings.getSeed() != null ? new Random(settings.getSeed()) : new Random();
+			problem = Problem.random(itemCount, resourceCount, r);
+		}
+		Manager best;
+		RunStatistics statistics;
+		try {
+			if (settings.getIslandCount() > 1) {
+				IslandModel islands = new IslandModel(problem, settings);
+				best = islands.run();
+				statistics = islands.getStatistics();
+			} else {
+				Population population = new Population(problem, settings);
+				best = population.run();
+				statistics = population.getStatistics();
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause(); // Checkpoint could not be resumed or written.
+		}
+		if (saveFile != null) {
+			ProblemFile.write(Paths.get(saveFile), problem, best);
+		}
+		PrintWriter out = openOutput();
+		try {
+			writeResult(best, statistics, out);
+		} finally {
+			closeOutput(out);
+		}
+	}
+
+	/**
+	 * Solve every plan file in the batch directory, writing one CSV record per
+	 * problem as soon as it finishes.
+	 *
+	 * @throws IOException if the directory can not be read or the output written.
+	 */
+	private void runBatch() throws IOException {
+		PrintWriter out = openOutput();
+		try {
+			out.println(BatchResult.CSV_HEADER);
+			out.flush();
+			new BatchSolver(settings, concurrency).solve(Paths.get(batchDirectory), result -> {
+				out.println(result.toCsv());
+				out.flush(); // Stream each result as it arrives.
+			});
+		} finally {
+			closeOutput(out);
+		}
+	}
+
+	/**
+	 * Open the output file, or standard output if there is no output file.
+	 *
+	 * @return writer for the result.
+	 * @throws IOException if the output file can not be created.
+	 */
+	private PrintWriter openOutput() throws IOException {
+		if (outFile == null) {
+			return new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		}
+		return new PrintWriter(new OutputStreamWriter(new FileOutputStream(outFile), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Finish writing the result (standard output is flushed but left open).
+	 *
+	 * @param out - writer for the result.
+	 */
+	private void closeOutput(PrintWriter out) {
+		if (outFile == null) {
+			out.flush();
+		} else {
+			out.close();
+		}
+	}
+
+	/**
+	 * Shut down the evaluation pool made for the run, if there is one.
+	 */
+	private void shutdownPool() {
+		if (settings.getPool() != null) {
+			settings.getPool().shutdown();
+		}
+	}
+
+	/**
+	 * Write the run statistics followed by the best Schedule as CSV (one line per
+	 * Timeslot with the time it starts on its Resource).
+	 *
+	 * @param best       - best individual found.
+	 * @param statistics - statistics of the run.
+	 * @param out        - where the result is written.
+	 */
+	static void writeResult(Manager best, RunStatistics statistics, PrintWriter out) {
+		Problem problem = best.getProblem();
+		out.println("makespan=" + best.getResult());
+		out.println("generations=" + statistics.getGenerations());
+		out.println("evaluations=" + statistics.getEvaluations());
+		out.println("elapsedMillis=" + statistics.getElapsedNanos() / 1000000);
+		out.println("cacheHitRate=" + String.format(Locale.ROOT, "%.4f", statistics.getCacheHitRate()));
+		out.println("allocatedBytesPerGeneration=" + statistics.getAllocatedBytesPerGeneration());
+		out.println();
+		out.println("resource,item,start,time");
+		int[] schedule = best.getSchedule();
+		int[] startTimes = best.getStartTimes();
+		for (int r = 0; r < problem.getResourceCount(); r++) {
+			String resourceName = problem.getResourceName(r);
+			int offset = problem.getResourceOffset(r);
+			for (int k = offset; k < offset + problem.getPlanSize(r); k++) {
+				int slot = schedule[k];
+				out.println(resourceName + "," + problem.getItemName(problem.getSlotItem(slot)) + "," + startTimes[k]
+						+ "," + problem.getSlotTime(slot));
+			}
+		}
+	}
+
+}
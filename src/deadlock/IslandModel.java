@@ -0,0 +1,167 @@
+package deadlock;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Island mode for the Genetic Algorithm. The population is split into several
+ * islands (sub-populations) which evolve independently on their own threads
+ * with the same selection, crossover and mutation operators. Every few
+ * generations each island sends copies of its best individuals to another
+ * island through a lock-free queue, and replaces its worst individuals with
+ * whatever migrants have arrived. Islands never wait for each other.
+ * Each island is run by Population.run(), so it sends metrics to the listeners
+ * from the settings and, if the settings give a checkpoint file, checkpoints
+ * to its own file (the file name followed by the island number). Migrants on
+ * their way to another island are not checkpointed.
+ *
+ * @author Shenal
+ *
+ */
+public class IslandModel {
+
+	private Problem problem = null; // Problem shared by every island.
+	private SolverSettings settings = null; // Settings for the whole run.
+	private List<Population> islands = new ArrayList<Population>(); // Sub-populations.
+	// Migrants waiting to join each island.
+	private List<ConcurrentLinkedQueue<Manager>> inboxes = new ArrayList<ConcurrentLinkedQueue<Manager>>();
+
+	/**
+	 * Constructor for IslandModel. The population size from the settings is
+	 * shared between the islands.
+	 *
+	 * @param problem  - problem setup shared by every individual.
+	 * @param settings - settings for this run.
+	 */
+	public IslandModel(Problem problem, SolverSettings settings) {
+		this.problem = problem;
+		this.settings = settings;
+		int islandCount = settings.getIslandCount();
+		for (int i = 0; i < islandCount; i++) {
+			SolverSettings islandSettings = new SolverSettings(settings);
+			// Share population between islands, spreading any remainder.
+			int islandSize = settings.getPopulationSize() / islandCount
+					+ (i < settings.getPopulationSize() % islandCount ? 1 : 0);
+			if (islandSize <= 5) {
+				throw new IllegalArgumentException("Island population size must be greater than 5");
+			}
+			islandSettings.setPopulationSize(islandSize);
+			if (settings.getSeed() != null) {
+				islandSettings.setSeed(settings.getSeed() + i); // Different stream for each island.
+			}
+			islandSettings.setPool(null); // Each island evaluates on its own thread.
+			if (settings.getCheckpointFile() != null) {
+				islandSettings.setCheckpointFile(getCheckpointFile(settings.getCheckpointFile(), i));
+			}
+			islands.add(new Population(problem, islandSettings));
+			inboxes.add(new ConcurrentLinkedQueue<Manager>());
+		}
+	}
+
+	/**
+	 * Run every island on its own thread until they have all finished.
+	 *
+	 * @return finalSolution - best individual found by any island.
+	 */
+	public Manager run() {
+		ExecutorService executor = Executors.newFixedThreadPool(islands.size());
+		try {
+			List<Future<Manager>> results = new ArrayList<Future<Manager>>();
+			for (int i = 0; i < islands.size(); i++) {
+				final int island = i;
+				results.add(executor.submit((Callable<Manager>) () -> evolve(island)));
+			}
+			Manager finalSolution = null;
+			for (Future<Manager> result : results) {
+				Manager best = result.get();
+				if (finalSolution == null || best.getResult() < finalSolution.getResult()) {
+					finalSolution = best;
+				}
+			}
+			return finalSolution;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Island run interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException) {
+				throw (UncheckedIOException) e.getCause(); // Checkpoint could not be resumed or written.
+			}
+			throw new IllegalStateException("Island failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Evolve one island, migrating every few generations.
+	 *
+	 * @param island - index of the island.
+	 * @return best individual found by the island.
+	 */
+	private Manager evolve(int island) {
+		Population population = islands.get(island);
+		population.setMigration(() -> migrate(island, population));
+		return population.run();
+	}
+
+	/**
+	 * Get the checkpoint file of one island.
+	 *
+	 * @param checkpointFile - checkpoint file from the settings.
+	 * @param island         - index of the island.
+	 * @return checkpoint file of the island.
+	 */
+	static Path getCheckpointFile(Path checkpointFile, int island) {
+		return checkpointFile.resolveSibling(checkpointFile.getFileName() + "." + island);
+	}
+
+	/**
+	 * Send copies of the best individuals of an island to another island and let
+	 * migrants which have arrived replace the worst individuals.
+	 *
+	 * @param island     - index of the island.
+	 * @param population - population of the island.
+	 */
+	private void migrate(int island, Population population) {
+		if (islands.size() > 1) {
+			int target = settings.getTopology().target(island, islands.size(), population.getRandom());
+			inboxes.get(target).addAll(population.copyBest(settings.getMigrantCount()));
+		}
+		Manager immigrant = null;
+		while ((immigrant = inboxes.get(island).poll()) != null) {
+			population.replaceWorst(immigrant);
+		}
+	}
+
+	/**
+	 * Get the statistics of the islands added together (see
+	 * RunStatistics.combine). Only complete once run() has returned.
+	 *
+	 * @return statistics of the whole run.
+	 */
+	public RunStatistics getStatistics() {
+		List<RunStatistics> statistics = new ArrayList<RunStatistics>(islands.size());
+		for (Population island : islands) {
+			statistics.add(island.getStatistics());
+		}
+		return RunStatistics.combine(statistics);
+	}
+
+	/**
+	 * Get the Problem solved by the islands.
+	 *
+	 * @return problem
+	 */
+	public Problem getProblem() {
+		return problem;
+	}
+
+}
@@ -1,320 +1,365 @@
 package deadlock;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Random;
 
 /**
  * A candidate solution/individual for one type/instance of a Deadlock
- * Prevention Problem.
- * 
+ * Prevention Problem. The genes of an individual are the order of the
+ * Timeslots in every Resource Schedule, kept in one int array (the Schedule of
+ * each Resource stored next to each other) over the shared Problem.
+ *
  * @author Shenal
  *
  */
 public class Manager {
 
-	private List<Item> items = new ArrayList<Item>(); // List of Items
-	private List<Resource> resources = new ArrayList<Resource>(); // List of Resources
-	// List of Resources unique to this solution.
-	private List<Resource> personalResources = new ArrayList<Resource>();
+	private Problem problem = null; // Problem shared by every individual.
+	private int[] schedule = null; // Plan Timeslot placed at each Schedule index.
+	// List of Resources with the Schedule of this solution (built when first needed).
+	private List<Resource> personalResources = null;
 	private int result = 0; // Result (fitness) of this solution.
+	private int[] checkpoints = null; // Evaluation state saved every few Schedule positions.
+	private boolean stateSaved = false; // Whether the checkpoints belong to the current Schedule.
+	private long fingerprint = 0; // Hash of the Schedule for the fitness cache.
+	private Manager baseline = null; // Evaluated parent this copy was made from (until evaluated).
+	private int dirtyFrom = Integer.MAX_VALUE; // Earliest Schedule position changed since the parent.
+	private int dirtyTo = -1; // Latest Schedule position changed since the parent.
 
 	/**
-	 * Constructor for Manager when user runs Random Setup Problem without
-	 * automatically generating Items, Resources and Resource Plan.
-	 * 
-	 * @param itemNumber     - amount of items.
-	 * @param resourceNumber - amount of resources.
+	 * Constructor for Manager which randomly shuffles the Plan of every Resource
+	 * to make a new Schedule. The result is not known until the individual is
+	 * evaluated.
+	 *
+	 * @param problem - problem setup shared by every individual.
+	 * @param r       - random number generator for shuffling.
 	 */
-	public Manager(int itemNumber, int resourceNumber) {
-		int itemCount = itemNumber; // User input dictates number of items.
-		int resourceCount = resourceNumber; // User input dictates number of resources.
-		initialiseItems(itemCount); // Make new Items
-		initialiseResources(resourceCount); // Make new Resources
-		initialisePlans(); // Create randomised plans for each Resource
+	public Manager(Problem problem, Random r) {
+		this.problem = problem;
+		schedule = new int[problem.getSlotCount()];
+		for (int k = 0; k < schedule.length; k++) {
+			schedule[k] = k;
+		}
+		createSchedules(r); // Formalise ordering of Timeslots for each Resource.
+		computeFingerprint();
 	}
 
 	/**
-	 * Constructor for Manager when user uses GUI to setup problem (User Setup
-	 * mode).
-	 * 
-	 * @param items     - list of items.
-	 * @param resources - list of resources.
+	 * Constructor for Manager with a given Schedule (e.g. a saved solution). The
+	 * result is not known until the individual is evaluated.
+	 *
+	 * @param problem  - problem setup shared by every individual.
+	 * @param schedule - plan timeslot placed at each schedule index.
+	 * @throws IllegalArgumentException if the Schedule of a Resource is not an
+	 *                                  ordering of its own Plan.
 	 */
-	public Manager(List<Item> items, List<Resource> resources) {
-		this.items = items;
-		this.resources = resources;
-		clearSchedules(); // Reset Schedule for the Resource.
-		createSchedules(); // Formalise ordering of Timeslots for each Resource.
-		calculateScheduleTime(); // Calculate times for each Resource to be fully utilised.
-		calculateResult(); // Find fitness of this solution.
-		copyResources(); // Save Schedule with delays for this individual permanently.
-		removeDelays(); // Remove Delay Timeslots from Schedule.
+	Manager(Problem problem, int[] schedule) {
+		if (schedule.length != problem.getSlotCount()) {
+			throw new IllegalArgumentException("Schedule has " + schedule.length + " timeslots, plan has "
+					+ problem.getSlotCount());
+		}
+		boolean[] placed = new boolean[schedule.length];
+		for (int resource = 0; resource < problem.getResourceCount(); resource++) {
+			int offset = problem.getResourceOffset(resource);
+			int end = offset + problem.getPlanSize(resource);
+			for (int k = offset; k < end; k++) {
+				int slot = schedule[k];
+				if (slot < offset || slot >= end || placed[slot]) {
+					throw new IllegalArgumentException("Schedule of resource " + problem.getResourceName(resource)
+							+ " is not an ordering of its plan");
+				}
+				placed[slot] = true;
+			}
+		}
+		this.problem = problem;
+		this.schedule = schedule.clone();
+		computeFingerprint();
+	}
+
+	/**
+	 * Constructor for Manager which copies the Schedule and result of another
+	 * individual (e.g. a parent before crossover). Until the copy is evaluated it
+	 * remembers the parent, so that only the positions changed since the parent
+	 * need to be evaluated again.
+	 *
+	 * @param parent - individual to be copied.
+	 */
+	public Manager(Manager parent) {
+		this.problem = parent.problem;
+		this.schedule = parent.schedule.clone();
+		this.result = parent.result;
+		this.fingerprint = parent.fingerprint;
+		if (parent.stateSaved) {
+			this.baseline = parent;
+		}
+	}
+
+	/**
+	 * Turn this individual into a copy of another individual of the same Problem,
+	 * reusing the arrays of this individual instead of allocating new ones.
+	 *
+	 * @param parent - individual to be copied.
+	 */
+	void copyFrom(Manager parent) {
+		System.arraycopy(parent.schedule, 0, schedule, 0, schedule.length);
+		result = parent.result;
+		fingerprint = parent.fingerprint;
+		personalResources = null;
+		stateSaved = false;
+		baseline = parent.stateSaved ? parent : null;
+		dirtyFrom = Integer.MAX_VALUE;
+		dirtyTo = -1;
+	}
+
+	/**
+	 * Get the Problem this individual is a solution for.
+	 *
+	 * @return problem
+	 */
+	public Problem getProblem() {
+		return problem;
+	}
+
+	/**
+	 * Get the Schedule of every Resource. The Schedule of Resource r starts at
+	 * problem.getResourceOffset(r).
+	 *
+	 * @return schedule
+	 */
+	public int[] getSchedule() {
+		return schedule;
 	}
 
 	/**
 	 * Get list of Items.
-	 * 
+	 *
 	 * @return items
 	 */
 	public List<Item> getItems() {
-		return items;
+		return problem.getItems();
 	}
 
 	/**
-	 * Get list of Resources.
-	 * 
+	 * Get list of Resources with the Schedule (including Delay Timeslots) of this
+	 * solution. The Schedules are built the first time they are needed, so only
+	 * the reported solution ever has Delay Timeslots made for it.
+	 *
 	 * @return resources
 	 */
 	public List<Resource> getResources() {
-		return resources;
-	}
-
-	/**
-	 * Create Items for a Random Setup Problem.
-	 * 
-	 * @param quantity - amount of items to be created.
-	 */
-	private void initialiseItems(int quantity) {
-		for (int i = 0; i < quantity; i++) {
-			String itemName = "I" + Integer.toString(i + 1);
-			Item newItem = new Item(itemName);
-			items.add(newItem);
+		if (personalResources == null) {
+			personalResources = buildResources();
 		}
+		return personalResources;
 	}
 
 	/**
-	 * Create Resources for a Random Setup Problem.
-	 * 
-	 * @param quantity - amount of resources to be created.
+	 * Get the start time of the Timeslot at each Schedule index.
+	 *
+	 * @return startTimes
 	 */
-	private void initialiseResources(int quantity) {
-		for (int i = 0; i < quantity; i++) {
-			String resourceName = "R" + Integer.toString(i + 1);
-			Resource newResource = new Resource(resourceName);
-			resources.add(newResource);
-		}
+	public int[] getStartTimes() {
+		int[] startTimes = new int[schedule.length];
+		new ScheduleEvaluator(problem).evaluate(schedule, startTimes);
+		return startTimes;
 	}
 
 	/**
-	 * Create plan to simulate Deadlock Prevention model/problem when running a
-	 * Random Setup Problem.
+	 * Work out the fingerprint of the whole Schedule.
 	 */
-	private void initialisePlans() {
-		Random r = new Random();
-		for (Resource resource : resources) {
-			int itemNumber = r.nextInt(items.size()) + 1;
-			for (int j = 0; j < itemNumber; j++) {
-				int itemIndex = r.nextInt(items.size()) + 1;
-				int newTime = r.nextInt(20) + 1; // Make random time for timeslot.
-				Timeslot newTimeslot = new Timeslot(items.get(itemIndex - 1).getName(), items.get(itemIndex - 1),
-						newTime);
-				resource.addToPlan(newTimeslot);
-			}
+	private void computeFingerprint() {
+		int[] slotClasses = problem.getSlotClasses();
+		fingerprint = 0;
+		for (int k = 0; k < schedule.length; k++) {
+			fingerprint ^= FitnessCache.hash(k, slotClasses[schedule[k]]);
 		}
 	}
 
 	/**
 	 * Randomly shuffles Timeslots in plan to create new schedule for each resource.
+	 *
+	 * @param r - random number generator for shuffling.
 	 */
-	private void createSchedules() {
-		for (Resource resource : resources) {
-//			resource.getSchedule().clear(); // Reset Schedule for resource
-//			resource.resetTotalTime(); // Reset Total Time for resource
-			for (Timeslot timeslot : resource.getPlan()) {
-				resource.addToSchedule(timeslot);
+	private void createSchedules(Random r) {
+		for (int resource = 0; resource < problem.getResourceCount(); resource++) {
+			int offset = problem.getResourceOffset(resource);
+			for (int k = problem.getPlanSize(resource) - 1; k > 0; k--) {
+				int swap = offset + r.nextInt(k + 1);
+				int temp = schedule[offset + k];
+				schedule[offset + k] = schedule[swap];
+				schedule[swap] = temp;
 			}
-			Collections.shuffle(resource.getSchedule());
 		}
 	}
 
 	/**
 	 * Calculates total time for each resource to be occupied by each item in order
 	 * to obtain the fitness of this solution/individual.
+	 *
+	 * @param evaluator - evaluator for the problem of this individual.
 	 */
-	public void calculateScheduleTime() {
-
-		List<Timeslot> previousTimeslots = new ArrayList<Timeslot>();
-		boolean delayFlag = false; // Indicate whether there is a delay before this timeslot.
-		// Non-empty if a previous timeslot is to be overwritten with new timeslot (in
-		// previousTimeslots)
-		Timeslot deletedTimeslot = null;
-		Timeslot newTimeslot = null; // Latest Timeslot to be analysed during Schedule check.
-		int previousTime = 0; // Total time of Resource which contains a previous timeslot.
-
-		List<Timeslot> delays = new ArrayList<Timeslot>();
-		List<Integer> delayIndexes = new ArrayList<Integer>();
-		List<Integer> resourcesIndex = new ArrayList<Integer>();
-
-		for (int i = 0; i < resources.size(); i++) {
-			for (Resource r : resources) { // For each resource
-				if (r.getSchedule().size() > i) { // Go through each Timeslot in a Resource Schedule
-
-					newTimeslot = r.getSchedule().get(i);
-					delayFlag = false;
-					deletedTimeslot = null;
-					previousTime = 0;
-
-					for (Timeslot oldTimeslot : previousTimeslots) { // Check all old Timeslots with unique Items.
-						// If item in new Timeslot is same as item in previous timeslot.
-						if (newTimeslot.getItem() == oldTimeslot.getItem()) {
-							for (Resource resource : resources) {
-								// Check which Resource owns the previous timeslot.
-								if (resource.getSchedule().contains(oldTimeslot)
-										&& resource.getTotalTime() > r.getTotalTime()) {
-
-									previousTime = resource.getTotalTime(); // Get total time of that resource
-									break;
-								}
-							}
-							// Create delays inbetween each Resource Schedule
-							// Deal with special cases where previous time is less than current time
-							if (previousTime != 0) {
-								if (previousTime > r.getTotalTime()) {
-									Timeslot t = new Timeslot(previousTime - r.getTotalTime()); // Make Delay Timeslot
-									delays.add(t);
-									// Show where the new delay timeslot should be placed inside which Resource
-									// Schedule.
-									delayIndexes.add(r.getSchedule().indexOf(newTimeslot) + r.getExpandedSize());
-									resourcesIndex.add(resources.indexOf(r));
-									r.expandScheduleSize(); // Account for previously added new Delay Timeslots.
-								}
+	public void calculateScheduleTime(ScheduleEvaluator evaluator) {
+		if (checkpoints == null) {
+			checkpoints = new int[problem.getCheckpointCount() * problem.getStateSize()];
+		}
+		result = evaluator.evaluate(this);
+		personalResources = null; // Schedules with delays are out of date.
+		stateSaved = true;
+		forgetBaseline();
+	}
 
-								r.addToTotalTime(newTimeslot.getTime(), previousTime); // Add new time plus time delay.
-								delayFlag = true;
-								deletedTimeslot = oldTimeslot; // Set the soon to be deleted old Timeslot.
-								break;
-							}
-						}
-					}
+	/**
+	 * Set the fitness of this individual from the fitness cache instead of
+	 * evaluating it. The evaluation state is not known, so the individual has to
+	 * be evaluated before its children can be evaluated from it.
+	 *
+	 * @param cachedResult - fitness of an identical schedule.
+	 */
+	void setCachedResult(int cachedResult) {
+		result = cachedResult;
+		personalResources = null;
+		stateSaved = false;
+		forgetBaseline();
+	}
 
-					// If there is no delay with the new Timeslot.
-					if (delayFlag == false) {
-						r.addTime(newTimeslot.getTime());
+	/**
+	 * Check whether this individual has saved evaluation state for its current
+	 * Schedule (so children can be evaluated from it).
+	 *
+	 * @return true if the checkpoints are up to date.
+	 */
+	boolean hasSavedState() {
+		return stateSaved;
+	}
 
-						// Replace the oldTimeslot with same Item as the new Timeslot.
-						for (Timeslot oldTimeslot : previousTimeslots) {
-							if (oldTimeslot.getItem() == newTimeslot.getItem()) {
-								deletedTimeslot = oldTimeslot;
-							}
-						}
-						// If the Item for the new Timeslot has an exisiting Timeslot in previousItems.
-						if (deletedTimeslot != null) {
-							previousTimeslots.remove(deletedTimeslot);
-						}
+	/**
+	 * Record that the Timeslot at a Schedule index has been replaced, updating the
+	 * fingerprint of the Schedule.
+	 *
+	 * @param index   - schedule index.
+	 * @param oldSlot - timeslot which was at the index.
+	 * @param newSlot - timeslot now at the index.
+	 */
+	void replaceSlot(int index, int oldSlot, int newSlot) {
+		int[] slotClasses = problem.getSlotClasses();
+		fingerprint ^= FitnessCache.hash(index, slotClasses[oldSlot]) ^ FitnessCache.hash(index, slotClasses[newSlot]);
+	}
 
-						previousTimeslots.add(newTimeslot);
-					} else { // Delete previous Timeslot if they were marked for deletion
-						previousTimeslots.remove(deletedTimeslot);
-						previousTimeslots.add(newTimeslot);
-						delayFlag = false;
-					}
-				}
-			}
-		}
+	/**
+	 * Get the fingerprint of the Schedule.
+	 *
+	 * @return fingerprint
+	 */
+	long getFingerprint() {
+		return fingerprint;
+	}
 
-		// Add delay timeslots to each resource schedule
-		for (int j = 0; j < delayIndexes.size(); j++) {
-			resources.get(resourcesIndex.get(j)).getSchedule().add(delayIndexes.get(j), delays.get(j));
-		}
+	/**
+	 * Record that the Timeslot at a position in a Resource Schedule has changed
+	 * since this individual was copied from its parent.
+	 *
+	 * @param position - schedule position (index within the resource schedule).
+	 */
+	public void markChanged(int position) {
+		dirtyFrom = Math.min(dirtyFrom, position);
+		dirtyTo = Math.max(dirtyTo, position);
 	}
 
 	/**
-	 * Remove delays after calculating fitness for this individual
+	 * Forget the parent this individual was copied from. Its evaluation state is
+	 * copied first if this individual has not been evaluated itself.
 	 */
-	public void removeDelays() {
-		for (Resource r : resources) {
-			ListIterator<Timeslot> iter = r.getSchedule().listIterator();
-			while (iter.hasNext()) {
-				if (iter.next().getItemName().equals("Delay")) {
-					iter.remove();
-				}
+	public void detach() {
+		if (baseline != null && dirtyFrom > dirtyTo) { // Same Schedule as the parent.
+			if (checkpoints == null) {
+				checkpoints = baseline.checkpoints.clone();
+			} else {
+				System.arraycopy(baseline.checkpoints, 0, checkpoints, 0, checkpoints.length);
 			}
+			stateSaved = true;
 		}
-
+		forgetBaseline();
 	}
 
 	/**
-	 * Get objective function/fitness of this solution which is the longest amount
-	 * of time for every resource to finish being utilised.
-	 * 
+	 * Forget the parent and the positions changed since it.
 	 */
-	public void calculateResult() {
-		for (Resource r : resources) {
-			if (result < r.getTotalTime()) {
-				result = r.getTotalTime();
-			}
-		}
+	private void forgetBaseline() {
+		baseline = null;
+		dirtyFrom = Integer.MAX_VALUE;
+		dirtyTo = -1;
 	}
 
 	/**
-	 * Get the fitness (quality) of this solution/individual.
-	 * 
-	 * @return result - fitness of this solution.
+	 * Get the evaluated parent this individual was copied from.
+	 *
+	 * @return baseline, or null if this individual has been evaluated itself.
 	 */
-	public int getResult() {
-		return result;
+	Manager getBaseline() {
+		return baseline;
 	}
 
 	/**
-	 * Reset resource specific variables to create the next new individual with its
-	 * own schedule.
+	 * Get the earliest Schedule position changed since the parent.
+	 *
+	 * @return dirtyFrom
 	 */
-	private void clearSchedules() {
-		for (Resource r : resources) {
-			r.clearSchedule(); // Reset schedule for resource
-			r.resetTotalTime(); // Reset Total Time for resource
-			r.resetTime(); // Reset time for timeslots added to resource
-			r.resetExpandedSize(); // Reset expanded size for resource
-		}
+	int getDirtyFrom() {
+		return dirtyFrom;
 	}
 
 	/**
-	 * Reset resource variables except the schedule to recalculate fitness.
+	 * Get the latest Schedule position changed since the parent.
+	 *
+	 * @return dirtyTo
 	 */
-	public void resetStuff() {
-		for (Resource r : resources) {
-			r.resetTotalTime();
-			r.resetTime();
-			r.resetExpandedSize();
-		}
+	int getDirtyTo() {
+		return dirtyTo;
 	}
 
 	/**
-	 * Make permanent copy of the Schedule for each Resource in an individual.
+	 * Get the evaluation states saved every few Schedule positions.
+	 *
+	 * @return checkpoints, or null if this individual has never been evaluated.
 	 */
-	public void copyResources() {
-		for (Resource r : resources) {
-			List<Timeslot> personalSchedule = new ArrayList<Timeslot>();
-			for (Timeslot t : r.getSchedule()) {
-				Timeslot timeslot = null;
-				if (t.getItemName().equals("Delay")) {
-					timeslot = new Timeslot(t.getTime());
-				} else {
-					timeslot = new Timeslot(t.getItemName(), t.getItem(), t.getTime());
-				}
-				personalSchedule.add(timeslot);
-			}
-			Resource newResource = new Resource(r.getName(), personalSchedule, r.getTotalTime());
-			personalResources.add(newResource);
-		}
+	int[] getCheckpoints() {
+		return checkpoints;
 	}
 
 	/**
-	 * Empty the list of personalResources (resources with already evaluated
-	 * schedule specific to this solution only.
+	 * Get the fitness (quality) of this solution/individual.
+	 *
+	 * @return result - fitness of this solution.
 	 */
-	public void clearResources() {
-		personalResources.clear();
+	public int getResult() {
+		return result;
 	}
 
 	/**
-	 * Retrieve original schedule to show final solution for Genetic Algorithm.
+	 * Make a copy of every Resource with the Schedule of this solution, with Delay
+	 * Timeslots wherever an Item has to wait for its previous Resource.
+	 *
+	 * @return resources with delays.
 	 */
-	public void setResources() {
-		resources = personalResources;
+	private List<Resource> buildResources() {
+		int[] startTimes = getStartTimes();
+		List<Resource> resources = new ArrayList<Resource>();
+		for (int r = 0; r < problem.getResourceCount(); r++) {
+			List<Timeslot> personalSchedule = new ArrayList<Timeslot>();
+			int totalTime = 0; // Time at which the previous Timeslot finished.
+			int offset = problem.getResourceOffset(r);
+			for (int k = offset; k < offset + problem.getPlanSize(r); k++) {
+				if (startTimes[k] > totalTime) {
+					personalSchedule.add(new Timeslot(startTimes[k] - totalTime));
+				}
+				Timeslot timeslot = problem.getSlot(schedule[k]);
+				personalSchedule.add(timeslot);
+				totalTime = startTimes[k] + timeslot.getTime();
+			}
+			resources.add(new Resource(problem.getResourceName(r), personalSchedule, totalTime));
+		}
+		return resources;
 	}
 
 }
@@ -0,0 +1,55 @@
+package deadlock;
+
+/**
+ * Pool of individuals which have been eliminated from a population. Their
+ * Schedule and checkpoint arrays are reused for new children, so breeding does
+ * not allocate new individuals once the pool has filled up. A pool belongs to
+ * one population and must only be used from the thread running it.
+ *
+ * @author Shenal
+ *
+ */
+class ManagerPool {
+
+	private Manager[] free = null; // Individuals waiting to be reused.
+	private int size = 0; // Number of individuals in the pool.
+
+	/**
+	 * Constructor for ManagerPool.
+	 *
+	 * @param capacity - largest number of individuals kept for reuse.
+	 */
+	ManagerPool(int capacity) {
+		free = new Manager[capacity];
+	}
+
+	/**
+	 * Get a copy of an individual, reusing an eliminated individual if there is
+	 * one in the pool.
+	 *
+	 * @param parent - individual to be copied.
+	 * @return copy of the parent.
+	 */
+	Manager copyOf(Manager parent) {
+		if (size == 0) {
+			return new Manager(parent);
+		}
+		Manager copy = free[--size];
+		free[size] = null;
+		copy.copyFrom(parent);
+		return copy;
+	}
+
+	/**
+	 * Give back an individual which is no longer in the population (and is not
+	 * the parent of an unevaluated child).
+	 *
+	 * @param deadlock - eliminated individual.
+	 */
+	void release(Manager deadlock) {
+		if (size < free.length) {
+			free[size++] = deadlock;
+		}
+	}
+
+}
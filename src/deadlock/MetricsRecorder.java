@@ -0,0 +1,177 @@
+package deadlock;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects generation metrics for the listeners of one population. Only one
+ * generation in TIMING_SAMPLE has its phases timed, and the clock is only
+ * checked every CLOCK_CHECK generations to see whether metrics are due, so
+ * most generations pay for no more than a counter check.
+ *
+ * @author Shenal
+ *
+ */
+class MetricsRecorder {
+
+	private static final int TIMING_SAMPLE = 32; // One generation in this many has its phases timed.
+	private static final int CLOCK_CHECK = 64; // Generations between looks at the clock.
+
+	private List<GenerationListener> listeners = null; // Listeners receiving the metrics.
+	private long intervalNanos; // Least time between two metrics.
+	private long[] phaseNanos = new long[GenerationPhase.values().length]; // Time in each phase since the last metrics.
+	private int timedGenerations = 0; // Generations timed since the last metrics.
+	private boolean timing = false; // Whether the phases of the current generation are timed.
+	private long phaseStart; // Time when the current phase started.
+	private long lastNanos = 0; // Run time at the last metrics.
+	private long lastEvaluations = 0; // Evaluations at the last metrics.
+	private long lastLookups = 0; // Fitness cache lookups at the last metrics.
+	private long lastHits = 0; // Fitness cache hits at the last metrics.
+	private long[] fingerprints = null; // Fingerprints of the population, sorted to count different Schedules.
+
+	/**
+	 * Constructor for MetricsRecorder.
+	 *
+	 * @param listeners      - listeners receiving the metrics (may be added to
+	 *                       later).
+	 * @param intervalMillis - least time between two metrics in milliseconds.
+	 */
+	MetricsRecorder(List<GenerationListener> listeners, long intervalMillis) {
+		this.listeners = listeners;
+		this.intervalNanos = intervalMillis * 1000000;
+	}
+
+	/**
+	 * Start a generation, timing it if it is in the sample.
+	 *
+	 * @param generation - generations finished before this one.
+	 */
+	void generationStarted(long generation) {
+		timing = generation % TIMING_SAMPLE == 0;
+		if (timing) {
+			phaseStart = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Record the end of a phase of the current generation. The phase is taken
+	 * to have started when the previous phase finished.
+	 *
+	 * @param phase - phase which has finished.
+	 */
+	void phaseFinished(GenerationPhase phase) {
+		if (timing) {
+			long now = System.nanoTime();
+			phaseNanos[phase.ordinal()] += now - phaseStart;
+			phaseStart = now;
+		}
+	}
+
+	/**
+	 * Finish a generation, sending metrics if they are due.
+	 *
+	 * @param population - individuals in the population.
+	 * @param statistics - statistics of the run.
+	 */
+	void generationFinished(List<Manager> population, RunStatistics statistics) {
+		if (timing) {
+			timedGenerations++;
+			timing = false;
+		}
+		if (statistics.getGenerations() % CLOCK_CHECK == 0
+				&& statistics.getElapsedNanos() - lastNanos >= intervalNanos) {
+			send(population, statistics);
+		}
+	}
+
+	/**
+	 * Send metrics for the generations since the last metrics to every listener.
+	 *
+	 * @param population - individuals in the population.
+	 * @param statistics - statistics of the run.
+	 */
+	void send(List<Manager> population, RunStatistics statistics) {
+		int best = Integer.MAX_VALUE;
+		int worst = Integer.MIN_VALUE;
+		long total = 0;
+		if (fingerprints == null || fingerprints.length != population.size()) {
+			fingerprints = new long[population.size()];
+		}
+		for (int i = 0; i < population.size(); i++) {
+			Manager m = population.get(i);
+			best = Math.min(best, m.getResult());
+			worst = Math.max(worst, m.getResult());
+			total += m.getResult();
+			fingerprints[i] = m.getFingerprint();
+		}
+		Arrays.sort(fingerprints);
+		int different = fingerprints.length == 0 ? 0 : 1;
+		for (int i = 1; i < fingerprints.length; i++) {
+			if (fingerprints[i] != fingerprints[i - 1]) {
+				different++;
+			}
+		}
+		long now = statistics.getElapsedNanos();
+		long evaluations = statistics.getEvaluations();
+		long lookups = statistics.getCacheLookups() - lastLookups;
+		long[] averagePhaseNanos = new long[phaseNanos.length];
+		for (int p = 0; p < phaseNanos.length; p++) {
+			averagePhaseNanos[p] = timedGenerations == 0 ? 0 : phaseNanos[p] / timedGenerations;
+		}
+		GenerationMetrics metrics = new GenerationMetrics(statistics.getGenerations(), best,
+				(double) total / Math.max(1, population.size()), worst, (double) different / Math.max(1, population.size()),
+				evaluations, now > lastNanos ? (evaluations - lastEvaluations) * 1e9 / (now - lastNanos) : 0,
+				lookups == 0 ? 0 : (double) (statistics.getCacheHits() - lastHits) / lookups, now, averagePhaseNanos);
+		lastNanos = now;
+		lastEvaluations = evaluations;
+		lastLookups = statistics.getCacheLookups();
+		lastHits = statistics.getCacheHits();
+		Arrays.fill(phaseNanos, 0);
+		timedGenerations = 0;
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).generationFinished(metrics);
+		}
+	}
+
+	/**
+	 * Send the fitness of the initial population to every listener.
+	 *
+	 * @param population - individuals in the population.
+	 */
+	void populationCreated(List<Manager> population) {
+		int[] results = getResults(population);
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).populationCreated(results);
+		}
+	}
+
+	/**
+	 * Send the last metrics and the fitness of the final population to every
+	 * listener.
+	 *
+	 * @param population - individuals in the population.
+	 * @param statistics - statistics of the whole run.
+	 */
+	void runFinished(List<Manager> population, RunStatistics statistics) {
+		send(population, statistics);
+		int[] results = getResults(population);
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).runFinished(results, statistics);
+		}
+	}
+
+	/**
+	 * Get the fitness of every individual.
+	 *
+	 * @param population - individuals in the population.
+	 * @return fitness of each individual.
+	 */
+	private static int[] getResults(List<Manager> population) {
+		int[] results = new int[population.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = population.get(i).getResult();
+		}
+		return results;
+	}
+
+}
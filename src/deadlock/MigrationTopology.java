@@ -0,0 +1,32 @@
+package deadlock;
+
+import java.util.Random;
+
+/**
+ * Decides which island receives the migrants sent by an island in island mode.
+ *
+ * @author Shenal
+ *
+ */
+public enum MigrationTopology {
+
+	RING, // Every island sends migrants to the next island.
+	RANDOM; // Every island sends migrants to a random other island.
+
+	/**
+	 * Pick the island which receives the migrants of an island.
+	 *
+	 * @param island      - index of the sending island.
+	 * @param islandCount - number of islands.
+	 * @param r           - random number generator of the sending island.
+	 * @return index of the receiving island.
+	 */
+	public int target(int island, int islandCount, Random r) {
+		if (this == RING || islandCount < 3) {
+			return (island + 1) % islandCount;
+		}
+		int target = r.nextInt(islandCount - 1); // Any island except the sender.
+		return target < island ? target : target + 1;
+	}
+
+}
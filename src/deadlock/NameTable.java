@@ -0,0 +1,152 @@
+package deadlock;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Gives each distinct name (a run of UTF-8 bytes in a buffer) a dense id,
+ * starting from 0 in order of first appearance. Names are compared and stored
+ * as bytes, so no String is created until the names are asked for.
+ *
+ * @author Shenal
+ *
+ */
+class NameTable {
+
+	private byte[] bytes = new byte[1 << 12]; // Bytes of every name, one after another.
+	private int byteCount = 0; // Bytes used.
+	private int[] starts = new int[64]; // Start of each name in bytes.
+	private int[] lengths = new int[64]; // Length of each name.
+	private int[] hashes = new int[64]; // Hash of each name.
+	private int count = 0; // Number of names.
+	private int[] table = new int[128]; // Id of the name in each entry (-1 if empty).
+
+	/**
+	 * Constructor for NameTable.
+	 */
+	NameTable() {
+		Arrays.fill(table, -1);
+	}
+
+	/**
+	 * Get the id of a name, adding it if it has not been seen before.
+	 *
+	 * @param buffer - buffer holding the name.
+	 * @param from   - index of the first byte of the name.
+	 * @param to     - index after the last byte of the name.
+	 * @return id of the name.
+	 */
+	int intern(ByteBuffer buffer, int from, int to) {
+		int hash = 0x811c9dc5; // FNV-1a
+		for (int i = from; i < to; i++) {
+			hash = (hash ^ (buffer.get(i) & 0xff)) * 0x01000193;
+		}
+		int mask = table.length - 1;
+		int index = (hash ^ (hash >>> 16)) & mask;
+		while (table[index] >= 0) {
+			int id = table[index];
+			if (hashes[id] == hash && matches(id, buffer, from, to)) {
+				return id;
+			}
+			index = (index + 1) & mask;
+		}
+		return add(buffer, from, to, hash, index);
+	}
+
+	/**
+	 * Check whether a stored name has the same bytes as part of a buffer.
+	 *
+	 * @param id     - id of the stored name.
+	 * @param buffer - buffer holding the other name.
+	 * @param from   - index of the first byte of the other name.
+	 * @param to     - index after the last byte of the other name.
+	 * @return true if the names are the same.
+	 */
+	private boolean matches(int id, ByteBuffer buffer, int from, int to) {
+		if (lengths[id] != to - from) {
+			return false;
+		}
+		int start = starts[id];
+		for (int i = 0; i < lengths[id]; i++) {
+			if (bytes[start + i] != buffer.get(from + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Store a new name.
+	 *
+	 * @param buffer - buffer holding the name.
+	 * @param from   - index of the first byte of the name.
+	 * @param to     - index after the last byte of the name.
+	 * @param hash   - hash of the name.
+	 * @param index  - empty table entry for the name.
+	 * @return id of the new name.
+	 */
+	private int add(ByteBuffer buffer, int from, int to, int hash, int index) {
+		int length = to - from;
+		if (byteCount + length > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + length));
+		}
+		for (int i = 0; i < length; i++) {
+			bytes[byteCount + i] = buffer.get(from + i);
+		}
+		if (count == starts.length) {
+			starts = Arrays.copyOf(starts, count * 2);
+			lengths = Arrays.copyOf(lengths, count * 2);
+			hashes = Arrays.copyOf(hashes, count * 2);
+		}
+		int id = count++;
+		starts[id] = byteCount;
+		lengths[id] = length;
+		hashes[id] = hash;
+		byteCount += length;
+		table[index] = id;
+		if (count * 2 > table.length) { // Keep the table at most half full.
+			rehash();
+		}
+		return id;
+	}
+
+	/**
+	 * Double the size of the table and put every name back into it.
+	 */
+	private void rehash() {
+		table = new int[table.length * 2];
+		Arrays.fill(table, -1);
+		int mask = table.length - 1;
+		for (int id = 0; id < count; id++) {
+			int index = (hashes[id] ^ (hashes[id] >>> 16)) & mask;
+			while (table[index] >= 0) {
+				index = (index + 1) & mask;
+			}
+			table[index] = id;
+		}
+	}
+
+	/**
+	 * Get number of names.
+	 *
+	 * @return count
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * Get every name, indexed by id.
+	 *
+	 * @return names
+	 */
+	String[] getNames() {
+		String[] names = new String[count];
+		for (int id = 0; id < count; id++) {
+			names[id] = new String(bytes, starts[id], lengths[id], StandardCharsets.UTF_8);
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,205 @@
+package deadlock;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a Resource Plan from a CSV file in the format written by the GUI
+ * (header line "item,time,resource", then one Timeslot per line) and builds
+ * the Problem for it. Items and Resources are numbered in the order they first
+ * appear in the file.
+ *
+ * The file is memory mapped and parsed straight from the mapped bytes: names
+ * are turned into dense ids without creating a String per field, and the rows
+ * are kept in int columns, so very large plans load quickly with little heap.
+ *
+ * @author Shenal
+ *
+ */
+public class PlanReader {
+
+	private static final int WINDOW = 1 << 28; // Largest part of the file mapped at once.
+
+	private Path file = null; // Plan file being read.
+	private NameTable items = new NameTable(); // Item names.
+	private NameTable resources = new NameTable(); // Resource names.
+	private int[] rowItems = new int[1024]; // Item id of each row.
+	private int[] rowTimes = new int[1024]; // Time of each row.
+	private int[] rowResources = new int[1024]; // Resource id of each row.
+	private int rowCount = 0; // Number of rows read.
+
+	/**
+	 * Constructor for PlanReader.
+	 *
+	 * @param file - plan file to be read.
+	 */
+	private PlanReader(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * Read a plan CSV file into a Problem.
+	 *
+	 * @param file - plan file.
+	 * @return problem with the plan from the file.
+	 * @throws IOException if the file can not be read or a line is not valid.
+	 */
+	public static Problem read(Path file) throws IOException {
+		PlanReader reader = new PlanReader(file);
+		reader.readRows();
+		return Problem.fromColumns(reader.items.getNames(), reader.resources.getNames(), reader.rowItems,
+				reader.rowTimes, reader.rowResources, reader.rowCount);
+	}
+
+	/**
+	 * Read every row of the file, mapping it one window at a time. A window ends
+	 * after its last full line and the next window starts with the line after.
+	 *
+	 * @throws IOException if the file can not be read or a line is not valid.
+	 */
+	private void readRows() throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0; // Position of the first byte not read yet.
+			int lineNumber = 0;
+			while (position < size) {
+				int length = (int) Math.min(WINDOW, size - position);
+				boolean last = position + length == size;
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				int lineStart = 0;
+				while (lineStart < length) {
+					int lineEnd = lineStart;
+					while (lineEnd < length && buffer.get(lineEnd) != '\n') {
+						lineEnd++;
+					}
+					if (lineEnd == length && !last) {
+						break; // Line carries on in the next window.
+					}
+					lineNumber++;
+					if (lineNumber > 1) { // Skip First Line in CSV File (Meta-data Headings).
+						readRow(buffer, lineStart, lineEnd, lineNumber);
+					}
+					lineStart = lineEnd + 1;
+				}
+				if (lineStart == 0) {
+					throw new IOException(file + ":" + (lineNumber + 1) + ": line is too long");
+				}
+				position = Math.min(size, position + lineStart);
+			}
+		}
+	}
+
+	/**
+	 * Read one line of the file as an item,time,resource row.
+	 *
+	 * @param buffer     - mapped part of the file.
+	 * @param from       - index of the first byte of the line.
+	 * @param to         - index of the end of the line.
+	 * @param lineNumber - line number for error messages.
+	 * @throws IOException if the line is not valid.
+	 */
+	private void readRow(MappedByteBuffer buffer, int from, int to, int lineNumber) throws IOException {
+		to = trimEnd(buffer, from, to); // Also drops the \r of \r\n line endings.
+		from = trimStart(buffer, from, to);
+		if (from == to) {
+			return; // Blank line.
+		}
+		int comma1 = indexOf(buffer, ',', from, to);
+		int comma2 = comma1 < 0 ? -1 : indexOf(buffer, ',', comma1 + 1, to);
+		if (comma2 < 0 || indexOf(buffer, ',', comma2 + 1, to) >= 0) {
+			throw new IOException(file + ":" + lineNumber + ": expected item,time,resource");
+		}
+		int item = items.intern(buffer, from, trimEnd(buffer, from, comma1));
+		int time = parseTime(buffer, trimStart(buffer, comma1 + 1, comma2), trimEnd(buffer, comma1 + 1, comma2),
+				lineNumber);
+		int resource = resources.intern(buffer, trimStart(buffer, comma2 + 1, to), to);
+		if (rowCount == rowItems.length) {
+			int newLength = rowCount + (rowCount >> 1); // Grow by half to keep the spare room small.
+			rowItems = Arrays.copyOf(rowItems, newLength);
+			rowTimes = Arrays.copyOf(rowTimes, newLength);
+			rowResources = Arrays.copyOf(rowResources, newLength);
+		}
+		rowItems[rowCount] = item;
+		rowTimes[rowCount] = time;
+		rowResources[rowCount] = resource;
+		rowCount++;
+	}
+
+	/**
+	 * Read the time of a row.
+	 *
+	 * @param buffer     - mapped part of the file.
+	 * @param from       - index of the first digit.
+	 * @param to         - index after the last digit.
+	 * @param lineNumber - line number for error messages.
+	 * @return time
+	 * @throws IOException if the time is not a whole number.
+	 */
+	private int parseTime(MappedByteBuffer buffer, int from, int to, int lineNumber) throws IOException {
+		if (from == to || to - from > 9) {
+			throw new IOException(file + ":" + lineNumber + ": time is not a number");
+		}
+		int time = 0;
+		for (int i = from; i < to; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new IOException(file + ":" + lineNumber + ": time is not a number");
+			}
+			time = time * 10 + digit;
+		}
+		return time;
+	}
+
+	/**
+	 * Find a byte in part of a buffer.
+	 *
+	 * @param buffer - mapped part of the file.
+	 * @param b      - byte to be found.
+	 * @param from   - first index searched.
+	 * @param to     - index after the last index searched.
+	 * @return index of the byte, or -1 if it is not there.
+	 */
+	private static int indexOf(MappedByteBuffer buffer, char b, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (buffer.get(i) == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Skip spaces at the start of part of a buffer.
+	 *
+	 * @param buffer - mapped part of the file.
+	 * @param from   - index of the start.
+	 * @param to     - index of the end.
+	 * @return index of the first byte which is not a space.
+	 */
+	private static int trimStart(MappedByteBuffer buffer, int from, int to) {
+		while (from < to && buffer.get(from) <= ' ' && buffer.get(from) >= 0) {
+			from++;
+		}
+		return from;
+	}
+
+	/**
+	 * Skip spaces at the end of part of a buffer.
+	 *
+	 * @param buffer - mapped part of the file.
+	 * @param from   - index of the start.
+	 * @param to     - index of the end.
+	 * @return index after the last byte which is not a space.
+	 */
+	private static int trimEnd(MappedByteBuffer buffer, int from, int to) {
+		while (to > from && buffer.get(to - 1) <= ' ' && buffer.get(to - 1) >= 0) {
+			to--;
+		}
+		return to;
+	}
+
+}
@@ -2,9 +2,13 @@ package deadlock;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Genetic Algorithm (Optimisation) Class to find optimal solution for Deadlock
@@ -15,16 +19,33 @@ import java.util.Random;
  */
 public class Population {
 
-	private Manager firstIndividual = null; // Gives resource plan for Random Setup GA.
+	static final int GENERATIONS = 10000; // Number of generations in one run.
+
+	private Problem problem = null; // Problem shared by every individual in population.
+	private SolverSettings settings = null; // Settings for this run.
 	private int populationSize; // Population Size
 	private List<Manager> deadlocks = null;
 	private List<Manager> children = null; // Offspring from crossover parents.
-	private long startTime; // Starting time when the program runs.
-	private List<Item> items = null; // List of items used by individuals in population.
-	private List<Resource> resources = null; // List of resources used by individuals in population.
+	private List<Manager> survivors = null; // Next population in generational mode.
+	private ManagerPool pool = null; // Eliminated individuals reused for new children.
+	private FitnessCache cache = null; // Fitness of schedules seen before (null if turned off).
+	private List<Manager> uncached = null; // Individuals not found in the fitness cache.
+	private int[] candidates = new int[5]; // Indexes of possible parents (the two parents first).
+	private Manager[] tournament = new Manager[4]; // Parents and children in survivor selection.
+	private long[] ranking = null; // Fitness and index of individuals in generational selection.
+	private RunStatistics statistics = new RunStatistics(); // Statistics for this run.
+	private TerminationPolicy termination = null; // Decides when the run stops.
+	private CheckpointWriter checkpointWriter = null; // Writes checkpoints of the run (null if turned off).
+	private List<GenerationListener> listeners = null; // Receive metrics of the run.
+	private MetricsRecorder metrics = null; // Collects metrics for the listeners (null if there are none).
+	private Runnable migration = null; // Exchanges individuals with other islands (null for a single population).
+	private volatile boolean cancelled = false; // Whether the run has been asked to stop early.
+	private boolean recordEvents = true; // Whether flight recorder events are created in this generation.
+	private Random r = null; // Random number generator for every GA operator.
+	private ThreadLocal<ScheduleEvaluator> evaluators = null; // Calculates fitness of individuals on each thread.
+	private int evaluationGrain; // Number of individuals evaluated together on one thread.
 
-	private List<Item> finalItems = null; // Items used by final solution (fittest individual).
-	private List<Resource> finalResources = null; // Resources used by final solution (fittest individual)
+	private Manager finalSolution = null; // Final solution (fittest individual).
 
 	private int averageResult = 0; // Average result of population in one generation.
 
@@ -38,204 +59,646 @@ public class Population {
 	 * @param resourceSize   - fixed number of resources
 	 */
 	public Population(int populationSize, int itemSize, int resourceSize) {
-		startTime = System.currentTimeMillis(); // Start time of running GA
-		// Dummy Manager for starting GA in User Setup mode.
-		firstIndividual = new Manager(itemSize, resourceSize);
-		this.populationSize = populationSize;
-		this.items = firstIndividual.getItems();
-		this.resources = firstIndividual.getResources();
-
-		System.out.println("Start----------------------------------------------------");
-		deadlocks = new ArrayList<Manager>(populationSize);
-		initialisePopulation(); // Population Initialisation
+		// Generate resource plan for Random Setup GA.
+		this(Problem.random(itemSize, resourceSize, new Random()), new SolverSettings(populationSize));
+		// Check if GA is still effective at making progress or not
+		// if there is a high amount of resources
+		settings.setCheckProgress(problem.getResourceCount() > 40);
+		run();
+	}
 
-		System.out.println("Initial Population Fitnesses --------------------");
-		printIndividualFitness();
+	/**
+	 * Constructor for Population class when running program in User Setup mode
+	 * (user defined problem). Users use the GUI to setup all Items, Resources and
+	 * the Resource Plan that will be fed into every individual in the population.
+	 * 
+	 * @param populationSize - fixed number of individuals in the population.
+	 * @param items          - list of items.
+	 * @param resources      - list of resources.
+	 */
+	public Population(int populationSize, List<Item> items, List<Resource> resources) {
+		this(new Problem(items, resources), new SolverSettings(populationSize));
+		run();
+	}
 
-		Random r = new Random();
-		Manager parent1 = null; // First crossover parent.
-		Manager parent2 = null; // Second crossover parent.
+	/**
+	 * Constructor for Population class for a problem and settings. The Genetic
+	 * Algorithm is not started until run() is called.
+	 * 
+	 * @param problem  - problem setup shared by every individual.
+	 * @param settings - settings for this run.
+	 */
+	public Population(Problem problem, SolverSettings settings) {
+		this.problem = problem;
+		this.settings = settings;
+		this.populationSize = settings.getPopulationSize();
+		this.r = settings.createRandom();
+		this.evaluators = ThreadLocal.withInitial(() -> new ScheduleEvaluator(problem));
+		// Split evaluation between threads in pieces of roughly 16k timeslots.
+		this.evaluationGrain = Math.max(1, (1 << 14) / Math.max(1, problem.getSlotCount()));
+		int offspringCount = settings.getMode() == BreedingMode.GENERATIONAL ? settings.getOffspringCount() : 2;
+		this.children = new ArrayList<Manager>(offspringCount + 1);
+		this.survivors = new ArrayList<Manager>(populationSize);
+		this.pool = new ManagerPool(offspringCount + 2);
+		if (settings.getCacheSize() > 0) {
+			this.cache = new FitnessCache(settings.getCacheSize());
+			this.uncached = new ArrayList<Manager>(Math.max(offspringCount + 1, populationSize));
+		}
+		this.termination = settings.getTermination() != null ? settings.getTermination()
+				: TerminationPolicy.generations(getGenerationLimit());
+		this.listeners = new ArrayList<GenerationListener>(settings.getListeners());
+		if (!(listeners.isEmpty())) {
+			this.metrics = new MetricsRecorder(listeners, settings.getMetricsInterval());
+		}
+	}
+
+	/**
+	 * Run the Genetic Algorithm on the problem until the termination policy from
+	 * the settings says to stop (10000 generations by default) or progress stops.
+	 * Progress is printed (by a ConsoleSink) unless the settings turn verbose
+	 * output off, and sent to the listeners from the settings. If the
+	 * settings give a checkpoint file, the run is checkpointed to it and can carry
+	 * on from it.
+	 * 
+	 * @return finalSolution - Optimal/Best Effort Solution found after running GA.
+	 * @throws UncheckedIOException if the checkpoint can not be resumed or written.
+	 */
+	public Manager run() {
+		if (settings.isVerbose()) {
+			listeners.add(new ConsoleSink());
+			if (metrics == null) {
+				metrics = new MetricsRecorder(listeners, settings.getMetricsInterval());
+			}
+		}
+		int cycles = 0;
+		if (settings.isResume() && settings.getCheckpointFile() != null
+				&& Files.exists(settings.getCheckpointFile())) {
+			cycles = resumePopulation(); // Carry on from the last checkpoint.
+		} else {
+			initialisePopulation(); // Population Initialisation
+		}
+		if (settings.getCheckpointFile() != null) {
+			checkpointWriter = new CheckpointWriter(settings.getCheckpointFile(), problem);
+		}
+		if (metrics != null) {
+			metrics.populationCreated(deadlocks);
+		}
 
 		// Start Genetic Algorithm
-		for (int cycles = 0; cycles < 10000; cycles++) { // 10000 generations
+		while (!(shouldStop())) {
+			if (!(nextGeneration(cycles))) {
+				break; // Finish GA
+			}
+			cycles++;
+			if (migration != null && cycles % settings.getMigrationInterval() == 0) {
+				migration.run(); // Exchange individuals with the other islands.
+			}
+			if (checkpointWriter != null && cycles % settings.getCheckpointInterval() == 0) {
+				checkpointWriter.submit(createCheckpoint(cycles));
+			}
+		}
+		finish();
+		if (checkpointWriter != null) {
+			checkpointWriter.submit(createCheckpoint(cycles));
+			closeCheckpointWriter();
+		}
+		return returnSolution(); // Get final solution with highest fitness produced by GA
+	}
+
+	/**
+	 * Set what is done every migration interval of the settings when this
+	 * population is an island in island mode. It is called on the thread running
+	 * the population, between two generations.
+	 * 
+	 * @param migration - exchanges individuals with the other islands.
+	 */
+	void setMigration(Runnable migration) {
+		this.migration = migration;
+	}
+
+	/**
+	 * Get the number of generations in one run. Generational runs breed as many
+	 * children in total as 10000 steady-state generations.
+	 * 
+	 * @return number of generations.
+	 */
+	int getGenerationLimit() {
+		if (settings.getMode() == BreedingMode.GENERATIONAL) {
+			return Math.max(1, GENERATIONS * 2 / settings.getOffspringCount());
+		}
+		return GENERATIONS;
+	}
+
+	/**
+	 * Check whether the termination policy says the run should stop.
+	 * 
+	 * @return true if the run should stop.
+	 */
+	boolean shouldStop() {
+		return cancelled || termination.shouldStop(statistics);
+	}
 
+	/**
+	 * Ask the run to stop after the current generation. The run then finishes
+	 * normally, returning the best solution found so far. Can be called from any
+	 * thread.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Check whether the run has been asked to stop early.
+	 * 
+	 * @return true if cancel() has been called.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Stop timing the run and send the final metrics to the listeners.
+	 */
+	void finish() {
+		statistics.stop();
+		if (metrics != null) {
+			metrics.runFinished(deadlocks, statistics);
+		}
+	}
+
+	/**
+	 * Run one generation of the Genetic Algorithm in the breeding mode from the
+	 * settings.
+	 * 
+	 * @param cycles - number of generations already run.
+	 * @return false if the GA has stopped making progress.
+	 */
+	boolean nextGeneration(int cycles) {
+		recordEvents = statistics.getGenerations() % SolverEvent.SAMPLE_INTERVAL == 0;
+		GenerationEvent event = recordEvents ? begin(new GenerationEvent()) : null;
+		if (metrics != null) {
+			metrics.generationStarted(statistics.getGenerations());
+		}
+		if (settings.getMode() == BreedingMode.GENERATIONAL) {
+			breedGeneration();
+		} else {
+			breedSteadyState();
+		}
+		if (event != null) {
+			event.bestResult = statistics.getBestResult();
+			commit(event);
+		}
+		statistics.generationFinished();
+		if (metrics != null) {
+			metrics.generationFinished(deadlocks, statistics);
+		}
+		if (cycles % 100 == 0) {
+			statistics.sampleAllocation();
+		}
+		// Check if GA is still effective at making progress or not
+		if (settings.isCheckProgress() && cycles % 100 == 0) { // Check every 100 cycles
+			return checkAlgorithmProgress();
+		}
+		return true;
+	}
+
+	/**
+	 * Run one steady-state generation: select two parents, create two children by
+	 * crossover (and mutation) and keep the best two of the four.
+	 */
+	private void breedSteadyState() {
+		BreedingEvent breeding = recordEvents ? begin(new BreedingEvent()) : null;
+		// Crossover Fraction = 0.8
+		float crossoverPercentage = r.nextFloat();
+		// Mutation Fraction = 0.2
+		float mutationPercentage = r.nextFloat();
+
+		// Best 2 out of random 5 for selecting parents
+		selectParents(); // Parent Selection
+		phaseFinished(GenerationPhase.SELECTION);
+		Manager parent1 = deadlocks.get(candidates[0]); // First crossover parent.
+		Manager parent2 = deadlocks.get(candidates[1]); // Second crossover parent.
+
+		if (crossoverPercentage < 0.8) { // 80% chance of doing crossover.
+			children.clear();
+			performCrossover(parent1, parent2);
+			phaseFinished(GenerationPhase.CROSSOVER);
+			// 20% chance of doing mutation.
+			if (mutationPercentage < 0.2) {
+				performMutation(children.get(0)); // Mutation for child 1
+				performMutation(children.get(1)); // Mutation for child 2
+				phaseFinished(GenerationPhase.MUTATION);
+			}
+			if (breeding != null) {
+				breeding.children = children.size();
+			}
+			commit(breeding);
+			evaluate(children); // Recheck Child Fitnesses
+			phaseFinished(GenerationPhase.EVALUATION);
+			SurvivorSelectionEvent selection = recordEvents ? begin(new SurvivorSelectionEvent()) : null;
+			performTournamentSelection(candidates[0], candidates[1]); // Survivor Selection
+			commit(selection);
+			phaseFinished(GenerationPhase.REPLACEMENT);
+		} else {
+			commit(breeding);
+		}
+	}
+
+	/**
+	 * Run one generational step: breed a full batch of children with the same
+	 * selection, crossover and mutation operators, evaluate the batch together and
+	 * then keep the best individuals out of the population and the children.
+	 */
+	private void breedGeneration() {
+		BreedingEvent breeding = recordEvents ? begin(new BreedingEvent()) : null;
+		int offspringCount = settings.getOffspringCount();
+		children.clear();
+		while (children.size() < offspringCount) {
 			// Crossover Fraction = 0.8
 			float crossoverPercentage = r.nextFloat();
 			// Mutation Fraction = 0.2
 			float mutationPercentage = r.nextFloat();
-
-			// Best 2 out of random 5 for selecting parents
-			List<Manager> parents = selectParents(); // Parent Selection
-			parent1 = parents.get(0);
-			parent2 = parents.get(1);
-			Manager child1 = new Manager(parents.get(0).getItems(), parents.get(0).getResources());
-			Manager child2 = new Manager(parents.get(1).getItems(), parents.get(1).getResources());
-
+			selectParents(); // Parent Selection
+			phaseFinished(GenerationPhase.SELECTION);
 			if (crossoverPercentage < 0.8) { // 80% chance of doing crossover.
-				children = performCrossover(parent1, parent2, child1, child2);
-				// 20% chance of doing mutation.
-				if (mutationPercentage < 0.2) {
-					performMutation(children.get(0)); // Mutation for child 1
-					performMutation(children.get(1)); // Mutation for child 2
+				int first = children.size(); // Index of the first new child.
+				performCrossover(deadlocks.get(candidates[0]), deadlocks.get(candidates[1]));
+				phaseFinished(GenerationPhase.CROSSOVER);
+				if (mutationPercentage < 0.2) { // 20% chance of doing mutation.
+					for (int i = first; i < children.size(); i++) {
+						performMutation(children.get(i));
+					}
+					phaseFinished(GenerationPhase.MUTATION);
 				}
-				rescoreChildren(child1, child2); // Recheck Child Fitnesses
-				performTournamentSelection(parent1, parent2); // Survivor Selection
-			}
-			// Check if GA is still effective at making progress or not
-			// if there is a high amount of resources
-			if (resources.size() > 40 && cycles % 100 == 0) { // Check every 100 cycles
-				if (!(checkAlgorithmProgress())) {
-//					System.out.print("Iteration: " + cycles);
-					break; // Finish GA
-
+				if (children.size() > offspringCount) { // Batch is already full.
+					pool.release(children.remove(children.size() - 1));
 				}
 			}
 		}
-		System.out.println("Final Population Fitnesses --------------------");
-		printIndividualFitness(); // OUTPUT OF POPULATION SHOULD BE DIFFERENT AFTER GA
-		System.out.println("Get Final Solution----------------------------");
-		returnSolution(); // Get final solution with highest fitness produced by GA
-		printExecutionTime(); // Get full GA runtime
+		if (breeding != null) {
+			breeding.children = children.size();
+		}
+		commit(breeding);
+		evaluate(children); // Evaluate whole batch of children.
+		phaseFinished(GenerationPhase.EVALUATION);
+		SurvivorSelectionEvent selection = recordEvents ? begin(new SurvivorSelectionEvent()) : null;
+		selectSurvivors(); // Survivor Selection
+		commit(selection);
+		phaseFinished(GenerationPhase.REPLACEMENT);
 	}
 
 	/**
-	 * Constructor for Population class when running program in User Setup mode
-	 * (user defined problem). Users use the GUI to setup all Items, Resources and
-	 * the Resource Plan that will be fed into every individual in the population.
+	 * Begin a flight recorder event.
 	 * 
-	 * @param populationSize - fixed number of individuals in the population.
-	 * @param items          - list of items.
-	 * @param resources      - list of resources.
+	 * @param event - new event.
+	 * @return event
 	 */
-	public Population(int populationSize, List<Item> items, List<Resource> resources) {
-		startTime = System.currentTimeMillis();
-		this.populationSize = populationSize;
-		this.items = items;
-		this.resources = resources;
+	private static <E extends SolverEvent> E begin(E event) {
+		event.begin();
+		return event;
+	}
 
-		System.out.println("Start----------------------------------------------------");
-		deadlocks = new ArrayList<Manager>(populationSize);
-		initialisePopulation(); // Population Initialisation
-		System.out.println("Initial Population Fitnesses --------------------");
-		printIndividualFitness();
-		Random r = new Random();
-		Manager parent1 = null; // First parent
-		Manager parent2 = null; // Second parent
+	/**
+	 * Commit a flight recorder event if a recording wants it, filling in the
+	 * size of the problem and population. The event ends now.
+	 * 
+	 * @param event - event which has begun (null if this generation is not
+	 *              recorded).
+	 */
+	private void commit(SolverEvent event) {
+		if (event == null) {
+			return;
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.items = problem.getItemCount();
+			event.resources = problem.getResourceCount();
+			event.timeslots = problem.getSlotCount();
+			event.populationSize = populationSize;
+			event.generation = statistics.getGenerations();
+			event.commit();
+		}
+	}
 
-		// Start Genetic Algorithm
-		for (int cycles = 0; cycles < 10000; cycles++) {
-			// Crossover Percentage = 0.8
-			float crossoverPercentage = r.nextFloat();
-			// Mutation Percentage = 0.2
-			float mutationPercentage = r.nextFloat();
-			// Best 2 out of random 5 for selecting parents
-			List<Manager> parents = selectParents(); // Parent Selection
-			parent1 = parents.get(0);
-			parent2 = parents.get(1);
-			Manager child1 = new Manager(items, resources);
-			Manager child2 = new Manager(items, resources);
+	/**
+	 * Record the end of a phase of the generation for the metrics.
+	 * 
+	 * @param phase - phase which has finished.
+	 */
+	private void phaseFinished(GenerationPhase phase) {
+		if (metrics != null) {
+			metrics.phaseFinished(phase);
+		}
+	}
 
-			if (crossoverPercentage < 0.8) { // 80% chance of doing crossover.
-				children = performCrossover(parent1, parent2, child1, child2);
-				// 20% chance of doing mutation.
-				if (mutationPercentage < 0.2) {
-					performMutation(children.get(0)); // Mutation for child 1
-					performMutation(children.get(1)); // Mutation for child 2
-				}
-				rescoreChildren(child1, child2); // Recheck Child Fitnesses
-				performTournamentSelection(parent1, parent2); // Survivor Selection
+	/**
+	 * Keep the fittest individuals out of the population and the batch of
+	 * children. Each individual is packed into one long (fitness in the high bits,
+	 * index in the low bits) so the whole batch is ranked by one primitive sort.
+	 * Eliminated individuals are kept for reuse by the next batch of children.
+	 */
+	private void selectSurvivors() {
+		int total = deadlocks.size() + children.size();
+		if (ranking == null || ranking.length < total) {
+			ranking = new long[total];
+		}
+		for (int i = 0; i < total; i++) {
+			ranking[i] = ((long) getCandidate(i).getResult() << 32) | i;
+		}
+		Arrays.sort(ranking, 0, total);
+		survivors.clear();
+		for (int i = 0; i < total; i++) {
+			Manager m = getCandidate((int) ranking[i]); // Index is in the low bits.
+			if (i < populationSize) {
+				survivors.add(m);
+			} else {
+				pool.release(m);
 			}
-			// Check if GA is still effective at making progress or not. (CURRENTLY
-			// DISABLED)
-//			if (cycles % 100 == 0) { // Check every 100 cycles
-//					if (!(checkAlgorithmProgress())) {
-//						break; // Finish GA
-//					}
-//			}
 		}
-		System.out.println("Final Population Fitnesses --------------------");
-		printIndividualFitness();
-		System.out.println("Get Final Solution----------------------------");
-		returnSolution(); // Get final solution with highest fitness produced by GA
-		printExecutionTime(); // Get full GA runtime
+		List<Manager> previous = deadlocks;
+		deadlocks = survivors;
+		survivors = previous; // Reused for the next generation.
+	}
+
+	/**
+	 * Get an individual out of the population followed by the batch of children.
+	 * 
+	 * @param index - index in the population, then in the children.
+	 * @return individual
+	 */
+	private Manager getCandidate(int index) {
+		return index < deadlocks.size() ? deadlocks.get(index) : children.get(index - deadlocks.size());
 	}
 
 	/**
 	 * Create initial population based on predefined population size to start
-	 * Genetic Algorithm.
+	 * Genetic Algorithm. Individuals are created in order from the random number
+	 * generator and then evaluated together.
 	 */
-	private void initialisePopulation() {
+	void initialisePopulation() {
+		statistics.start();
+		deadlocks = new ArrayList<Manager>(populationSize);
 		for (int i = 0; i < populationSize; i++) {
-			Manager newDeadlock = new Manager(items, resources);
+			Manager newDeadlock = new Manager(problem, r);
 			deadlocks.add(newDeadlock);
 		}
+		evaluate(deadlocks);
+		statistics.startGenerations();
+	}
+
+	/**
+	 * Save the state of the run between two generations. Everything is copied, so
+	 * the checkpoint can be written while the run carries on.
+	 * 
+	 * @param cycles - number of generations run.
+	 * @return checkpoint
+	 */
+	private Checkpoint createCheckpoint(int cycles) {
+		Checkpoint checkpoint = new Checkpoint();
+		checkpoint.cycles = cycles;
+		checkpoint.averageResult = averageResult;
+		statistics.save(checkpoint);
+		checkpoint.random = Checkpoint.saveRandom(r);
+		checkpoint.schedules = new int[deadlocks.size()][];
+		checkpoint.results = new int[deadlocks.size()];
+		checkpoint.evaluated = new boolean[deadlocks.size()];
+		for (int i = 0; i < deadlocks.size(); i++) {
+			Manager m = deadlocks.get(i);
+			checkpoint.schedules[i] = m.getSchedule().clone();
+			checkpoint.results[i] = m.getResult();
+			checkpoint.evaluated[i] = m.hasSavedState();
+		}
+		if (cache != null) {
+			cache.save(checkpoint);
+		}
+		return checkpoint;
+	}
+
+	/**
+	 * Create the population from the checkpoint file. Individuals are evaluated
+	 * again to rebuild their evaluation state, and those which had their fitness
+	 * from the fitness cache are marked so again, so the run carries on exactly as
+	 * it would have done.
+	 * 
+	 * @return number of generations already run.
+	 */
+	private int resumePopulation() {
+		try {
+			Checkpoint checkpoint = Checkpoint.read(settings.getCheckpointFile(), problem);
+			if (checkpoint.schedules.length != populationSize) {
+				throw new IOException(settings.getCheckpointFile() + ": checkpoint has a population of "
+						+ checkpoint.schedules.length + ", not " + populationSize);
+			}
+			statistics.start();
+			deadlocks = new ArrayList<Manager>(populationSize);
+			for (int[] schedule : checkpoint.schedules) {
+				try {
+					deadlocks.add(new Manager(problem, schedule));
+				} catch (IllegalArgumentException e) {
+					throw new IOException(settings.getCheckpointFile() + ": " + e.getMessage(), e);
+				}
+			}
+			evaluateAll(deadlocks);
+			for (int i = 0; i < populationSize; i++) {
+				Manager m = deadlocks.get(i);
+				if (m.getResult() != checkpoint.results[i]) {
+					throw new IOException(settings.getCheckpointFile() + ": saved fitness " + checkpoint.results[i]
+							+ " does not match the schedule (" + m.getResult() + ")");
+				}
+				if (!(checkpoint.evaluated[i])) {
+					m.setCachedResult(checkpoint.results[i]);
+				}
+			}
+			r = checkpoint.restoreRandom();
+			averageResult = checkpoint.averageResult;
+			if (cache != null) {
+				cache.restore(checkpoint);
+			}
+			statistics.restore(checkpoint); // Also drops the evaluations done above.
+			statistics.startGenerations();
+			return checkpoint.cycles;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Wait for the last checkpoint to be written.
+	 */
+	private void closeCheckpointWriter() {
+		try {
+			checkpointWriter.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			checkpointWriter = null;
+		}
+	}
+
+	/**
+	 * Calculate fitness for a list of individuals, using the fitness cache if it
+	 * is turned on, and record the results in the run statistics.
+	 * 
+	 * @param individuals - individuals to be evaluated.
+	 */
+	void evaluate(List<Manager> individuals) {
+		EvaluationEvent event = recordEvents ? begin(new EvaluationEvent()) : null;
+		if (cache == null) {
+			evaluateAll(individuals);
+		} else {
+			evaluateUncached(individuals);
+		}
+		if (event != null) {
+			event.individuals = individuals.size();
+			event.cacheHits = cache == null ? 0 : individuals.size() - uncached.size();
+			commit(event);
+		}
+		for (int i = 0; i < individuals.size(); i++) {
+			statistics.recordResult(individuals.get(i).getResult());
+		}
+	}
+
+	/**
+	 * Give cached fitnesses to changed individuals whose Schedule is in the
+	 * fitness cache, then evaluate the rest and add them to the cache.
+	 * 
+	 * @param individuals - individuals to be evaluated.
+	 */
+	private void evaluateUncached(List<Manager> individuals) {
+		uncached.clear();
+		int lookups = 0;
+		int hits = 0;
+		for (int i = 0; i < individuals.size(); i++) {
+			Manager m = individuals.get(i);
+			// Unchanged copies are evaluated from their parent at no cost.
+			if (m.getBaseline() == null || m.getDirtyFrom() <= m.getDirtyTo()) {
+				lookups++;
+				int cachedResult = cache.get(m.getFingerprint());
+				if (cachedResult >= 0) {
+					m.setCachedResult(cachedResult);
+					hits++;
+					continue;
+				}
+			}
+			uncached.add(m);
+		}
+		statistics.addCacheLookups(lookups, hits);
+		evaluateAll(uncached);
+		for (int i = 0; i < uncached.size(); i++) {
+			cache.put(uncached.get(i).getFingerprint(), uncached.get(i).getResult());
+		}
+	}
+
+	/**
+	 * Evaluate a list of individuals, using the pool from the settings if there
+	 * is one. Evaluation does not use the random number generator, so results are
+	 * the same with or without the pool.
+	 * 
+	 * @param individuals - individuals to be evaluated.
+	 */
+	private void evaluateAll(List<Manager> individuals) {
+		ForkJoinPool forkJoinPool = settings.getPool();
+		if (forkJoinPool == null || individuals.size() <= evaluationGrain) {
+			ScheduleEvaluator evaluator = evaluators.get();
+			for (int i = 0; i < individuals.size(); i++) {
+				individuals.get(i).calculateScheduleTime(evaluator);
+			}
+		} else {
+			forkJoinPool.invoke(new EvaluationTask(individuals, 0, individuals.size(), evaluationGrain, evaluators));
+		}
+		statistics.addEvaluations(individuals.size());
 	}
 
 	/**
 	 * Pick two individuals from population to be two parents for Crossover and
 	 * Mutation. Parents selected via Best 2-out-of-random 5 method. 5 randomly
 	 * picked individuals are extracted from the population and the two individuals
-	 * out of the 5 with the highest fitness are nominated as the two parents.
-	 * 
-	 * @return parents - both parent individuals
+	 * out of the 5 with the highest fitness are nominated as the two parents. The
+	 * indexes of both parents are left at the start of candidates.
 	 */
-	private List<Manager> selectParents() {
-		Random r = new Random();
-		List<Manager> possibleParents = new ArrayList<Manager>(); // 5 individuals.
-		List<Manager> parents = new ArrayList<Manager>(); // 2 parents.
-		List<Integer> indexes = new ArrayList<Integer>();
+	void selectParents() {
 		int i = 0;
 		while (i < 5) { // Get 5 individuals
 			int parentIndex = r.nextInt(populationSize);
 			// Add unique individuals to be potential parents.
-			if (!(indexes.contains(parentIndex))) {
+			if (!(isCandidate(parentIndex, i))) {
 				// Ensure individual is not picked again.
-				indexes.add(parentIndex);
-				possibleParents.add(deadlocks.get(parentIndex));
+				candidates[i] = parentIndex;
 				i++;
 			}
 		}
 		for (int j = 0; j < 2; j++) { // Pick 2 individuals to be parents.
-			Manager minDeadlock = possibleParents.get(0); // Remove best solution.
-			for (int k = 0; k < possibleParents.size(); k++) {
-				if (minDeadlock.getResult() > possibleParents.get(k).getResult()) {
-					minDeadlock = possibleParents.get(k);
+			int best = j; // Fittest remaining candidate (first one if equal).
+			for (int k = j + 1; k < candidates.length; k++) {
+				if (deadlocks.get(candidates[best]).getResult() > deadlocks.get(candidates[k]).getResult()) {
+					best = k;
 				}
 			}
-			parents.add(minDeadlock); // Add fittest 2 out of 5 individuals.
-			possibleParents.remove(minDeadlock);
+			// Move parent to position j, keeping the other candidates in order.
+			int parentIndex = candidates[best];
+			System.arraycopy(candidates, j, candidates, j + 1, best - j);
+			candidates[j] = parentIndex;
 		}
-		return parents;
 	}
 
 	/**
-	 * Run Crossover operation on two new children individuals to ensure both
-	 * children inherit genes (structure) from both parents.
+	 * Check whether an individual has already been picked as a possible parent.
+	 * 
+	 * @param index - index of the individual.
+	 * @param count - number of candidates picked so far.
+	 * @return true if the individual has been picked.
+	 */
+	private boolean isCandidate(int index, int count) {
+		for (int i = 0; i < count; i++) {
+			if (candidates[i] == index) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Run Crossover operation on two parents to create two new children which
+	 * inherit genes (structure) from both parents. Each child starts as a copy of
+	 * one parent and takes the Schedule of one Resource from the other parent.
+	 * Both children are added to the list of children.
 	 * 
 	 * @param parent1 - Parent 1
 	 * @param parent2 - Parent 2
-	 * @param child1  - Child 1
-	 * @param child2  - Child 2
-	 * @return newChildren - list containing both (two) children individuals
 	 */
-	private List<Manager> performCrossover(Manager parent1, Manager parent2, Manager child1, Manager child2) {
+	void performCrossover(Manager parent1, Manager parent2) {
+		// Children are evaluated from their parents, so parents found in the
+		// fitness cache are evaluated first.
+		prepareParent(parent1);
+		prepareParent(parent2);
 		// Single Point Crossover
-		Random r = new Random();
+		Manager child1 = pool.copyOf(parent1);
+		Manager child2 = pool.copyOf(parent2);
 		// Determines which resource will have its schedule swapped between
 		// both children.
-		int crossoverPoint = r.nextInt(resources.size());
+		int crossoverPoint = r.nextInt(problem.getResourceCount());
 
 		// Swap schedules for randomly selected Resource
-		for (int k = 0; k < resources.get(crossoverPoint).getScheduleSize(); k++) {
-			Timeslot temp = parent1.getResources().get(crossoverPoint).getSchedule().get(k);
-			child1.getResources().get(crossoverPoint).getSchedule().set(k,
-					parent2.getResources().get(crossoverPoint).getSchedule().get(k));
-			child2.getResources().get(crossoverPoint).getSchedule().set(k, temp);
+		int offset = problem.getResourceOffset(crossoverPoint);
+		int size = problem.getPlanSize(crossoverPoint);
+		System.arraycopy(parent2.getSchedule(), offset, child1.getSchedule(), offset, size);
+		System.arraycopy(parent1.getSchedule(), offset, child2.getSchedule(), offset, size);
+		// Record which positions differ between the parents for delta evaluation
+		// (interchangeable timeslots do not count as a difference).
+		int[] slotClasses = problem.getSlotClasses();
+		for (int k = 0; k < size; k++) {
+			int slot1 = parent1.getSchedule()[offset + k];
+			int slot2 = parent2.getSchedule()[offset + k];
+			if (slotClasses[slot1] != slotClasses[slot2]) {
+				child1.markChanged(k);
+				child2.markChanged(k);
+				child1.replaceSlot(offset + k, slot1, slot2);
+				child2.replaceSlot(offset + k, slot2, slot1);
+			}
 		}
-		List<Manager> newChildren = new ArrayList<Manager>();
-		newChildren.add(child1);
-		newChildren.add(child2);
-		return newChildren; // Feed two new children into next GA operations.
+
+		children.add(child1); // Feed two new children into next GA operations.
+		children.add(child2);
 	}
 
 	/**
@@ -244,63 +707,84 @@ public class Population {
 	 * 
 	 * @param deadlock - child individual
 	 */
-	private void performMutation(Manager deadlock) {
+	void performMutation(Manager deadlock) {
 		// Swap Mutation
-		Random r = new Random();
-		int scheduleIndex = r.nextInt(deadlock.getResources().size()); // Which resource will have its schedule mutated
+		int scheduleIndex = r.nextInt(problem.getResourceCount()); // Which resource will have its schedule mutated
+		int size = problem.getPlanSize(scheduleIndex);
+		if (size == 0) {
+			return; // Nothing to swap in an empty schedule.
+		}
+		int offset = problem.getResourceOffset(scheduleIndex);
 		// startPoint (First timeslot in schedule) to be swapped with endPoint (another
 		// timeslot in schedule)
-		int startPoint = r.nextInt(deadlock.getResources().get(scheduleIndex).getScheduleSize());
-		int endPoint = r.nextInt(deadlock.getResources().get(scheduleIndex).getScheduleSize());
-		Timeslot temp = deadlock.getResources().get(scheduleIndex).getSchedule().get(startPoint);
+		int startPoint = offset + r.nextInt(size);
+		int endPoint = offset + r.nextInt(size);
+		int[] schedule = deadlock.getSchedule();
 		// Swap the two randomly selected timeslots in the resource schedule
-		deadlock.getResources().get(scheduleIndex).getSchedule().set(startPoint,
-				deadlock.getResources().get(scheduleIndex).getSchedule().get(endPoint));
-		deadlock.getResources().get(scheduleIndex).getSchedule().set(endPoint, temp);
+		int temp = schedule[startPoint];
+		schedule[startPoint] = schedule[endPoint];
+		schedule[endPoint] = temp;
+		// Swapping interchangeable timeslots does not change the fitness.
+		int[] slotClasses = problem.getSlotClasses();
+		if (slotClasses[schedule[startPoint]] != slotClasses[schedule[endPoint]]) {
+			deadlock.markChanged(startPoint - offset);
+			deadlock.markChanged(endPoint - offset);
+			deadlock.replaceSlot(startPoint, temp, schedule[startPoint]);
+			deadlock.replaceSlot(endPoint, schedule[startPoint], temp);
+		}
+	}
 
+	/**
+	 * Evaluate an individual whose fitness came from the fitness cache, so that
+	 * it has saved evaluation state for its children.
+	 * 
+	 * @param parent - individual about to be copied.
+	 */
+	private void prepareParent(Manager parent) {
+		if (!(parent.hasSavedState())) {
+			parent.calculateScheduleTime(evaluators.get());
+			statistics.addEvaluations(1);
+		}
 	}
 
 	/**
 	 * Perform Survivor Selection operation to eliminate enough individuals to
 	 * maintain fixed population size after children individuals are created. Done
 	 * via Tournament Selection where the two best/fittest individuals among both
-	 * parents and both children are retained and the other two eliminated.
+	 * parents and both children are retained and the other two eliminated. The
+	 * winners take the places of the parents in the population and the losers are
+	 * kept for reuse by the next children.
 	 * 
-	 * @param parent1 - Parent 1
-	 * @param parent2 - Parent 2
+	 * @param index1 - index of Parent 1
+	 * @param index2 - index of Parent 2
 	 */
-	private void performTournamentSelection(Manager parent1, Manager parent2) {
-		// Remove parents from population and add two tournament winners later
-		deadlocks.remove(parent1);
-		deadlocks.remove(parent2);
-		List<Manager> tournamentParticipants = new ArrayList<Manager>();
-		List<Manager> winners = new ArrayList<Manager>();
-		Manager winner = null;
-
+	void performTournamentSelection(int index1, int index2) {
 		// Put both parents and children in tournament
-		tournamentParticipants.add(parent1);
-		tournamentParticipants.add(parent2);
-		tournamentParticipants.add(children.get(0));
-		tournamentParticipants.add(children.get(1));
+		tournament[0] = deadlocks.get(index1);
+		tournament[1] = deadlocks.get(index2);
+		tournament[2] = children.get(0);
+		tournament[3] = children.get(1);
 
 		// Get two best solutions out of both parents and children (2 out of 4)
 		for (int i = 0; i < 2; i++) {
-			winner = tournamentParticipants.get(0);
-			for (int j = 0; j < tournamentParticipants.size(); j++) {
-				if (winner.getResult() > tournamentParticipants.get(j).getResult()) {
-					winner = tournamentParticipants.get(j);
+			int winner = i; // Fittest remaining participant (first one if equal).
+			for (int j = i + 1; j < tournament.length; j++) {
+				if (tournament[winner].getResult() > tournament[j].getResult()) {
+					winner = j;
 				}
 			}
-			winners.add(winner);
-			tournamentParticipants.remove(winner);
-
-		}
-
-		// Add winners back into population
-		for (int k = 0; k < 2; k++) {
-			deadlocks.add(winners.get(k));
+			// Move winner to position i, keeping the other participants in order.
+			Manager m = tournament[winner];
+			System.arraycopy(tournament, i, tournament, i + 1, winner - i);
+			tournament[i] = m;
 		}
 
+		// Put winners into population in place of the parents
+		deadlocks.set(index1, tournament[0]);
+		deadlocks.set(index2, tournament[1]);
+		pool.release(tournament[2]);
+		pool.release(tournament[3]);
+		Arrays.fill(tournament, null);
 	}
 
 	/**
@@ -318,12 +802,130 @@ public class Population {
 				index = i;
 			}
 		}
-		deadlocks.get(index).setResources(); // Retrieve schedule with delays for each resource in final solution.
-		finalItems = deadlocks.get(index).getItems(); // Transfer current Items setup to GUI
-		finalResources = deadlocks.get(index).getResources(); // Transfer current Resources setup to GUI
+		finalSolution = deadlocks.get(index); // Items and Resources are built for the GUI when asked for.
 		return deadlocks.get(index);
 	}
 
+	/**
+	 * Copy the fittest individual in the population, so it can be shown while the
+	 * run carries on. Must be called on the thread running the population (e.g.
+	 * from a GenerationListener). The copy is detached, so it does not keep an
+	 * individual which the population may recycle.
+	 * 
+	 * @return copy of the best solution so far.
+	 */
+	Manager copyBestSolution() {
+		int index = 0; // Index of best solution in the population list
+		for (int i = 1; i < deadlocks.size(); i++) {
+			if (deadlocks.get(i).getResult() < deadlocks.get(index).getResult()) {
+				index = i;
+			}
+		}
+		Manager copy = new Manager(deadlocks.get(index));
+		copy.detach(); // Copy must not depend on an individual from this population.
+		return copy;
+	}
+
+	/**
+	 * Get an individual in the population.
+	 * 
+	 * @param index - index of the individual.
+	 * @return individual
+	 */
+	Manager getIndividual(int index) {
+		return deadlocks.get(index);
+	}
+
+	/**
+	 * Get the children from the last crossover, before survivor selection.
+	 * 
+	 * @return children
+	 */
+	List<Manager> getChildren() {
+		return children;
+	}
+
+	/**
+	 * Drop the children from the last crossover without selecting survivors,
+	 * keeping them for reuse (e.g. when crossover is measured on its own).
+	 */
+	void releaseChildren() {
+		for (int i = 0; i < children.size(); i++) {
+			pool.release(children.get(i));
+		}
+		children.clear();
+	}
+
+	/**
+	 * Get the individual with the best fitness currently in the population.
+	 * 
+	 * @return best individual.
+	 */
+	Manager getBest() {
+		Manager best = deadlocks.get(0);
+		for (Manager m : deadlocks) {
+			if (m.getResult() < best.getResult()) {
+				best = m;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Make copies of the best individuals in the population to send to another
+	 * population (island).
+	 * 
+	 * @param count - number of individuals to copy.
+	 * @return copies of the best individuals.
+	 */
+	List<Manager> copyBest(int count) {
+		List<Manager> ranked = new ArrayList<Manager>(deadlocks);
+		ranked.sort((m1, m2) -> Integer.compare(m1.getResult(), m2.getResult()));
+		List<Manager> copies = new ArrayList<Manager>(count);
+		for (int i = 0; i < count && i < ranked.size(); i++) {
+			Manager copy = new Manager(ranked.get(i));
+			copy.detach(); // Copy must not depend on an individual from this population.
+			copies.add(copy);
+		}
+		return copies;
+	}
+
+	/**
+	 * Replace the individual with the worst fitness by an individual from another
+	 * population (island).
+	 * 
+	 * @param immigrant - evaluated individual from another population.
+	 */
+	void replaceWorst(Manager immigrant) {
+		int worst = 0;
+		for (int i = 1; i < deadlocks.size(); i++) {
+			if (deadlocks.get(i).getResult() > deadlocks.get(worst).getResult()) {
+				worst = i;
+			}
+		}
+		pool.release(deadlocks.get(worst));
+		deadlocks.set(worst, immigrant);
+		statistics.recordResult(immigrant.getResult());
+	}
+
+	/**
+	 * Get the statistics for this run.
+	 * 
+	 * @return statistics
+	 */
+	public RunStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Get the random number generator of this population.
+	 * 
+	 * @return r
+	 */
+	Random getRandom() {
+		return r;
+	}
+
 	/**
 	 * Get bad solution from early stage of algorithm to get a benchmark to show
 	 * improvement done by GA.
@@ -354,31 +956,6 @@ public class Population {
 		return deadlocks.get(index).getResult();
 	}
 
-	/**
-	 * Reevaluate fitnesses for both new children after crossover and/or mutation
-	 * operators
-	 * 
-	 * @param child1 - Child 1
-	 * @param child2 - Child 2
-	 */
-	private void rescoreChildren(Manager child1, Manager child2) {
-		// Recalculate fitness for modified version of child1
-		child1.clearResources();
-		child1.resetStuff();
-		child1.calculateScheduleTime();
-		child1.calculateResult();
-		child1.copyResources();
-		child1.removeDelays();
-
-		// Recalculate fitness for modified version of child2
-		child2.clearResources();
-		child2.resetStuff();
-		child2.calculateScheduleTime();
-		child2.calculateResult();
-		child2.copyResources();
-		child2.removeDelays();
-	}
-
 	/**
 	 * Evaluate how well the Genetic Algorithm is working at finding improved
 	 * solutions periodically. Stop GA if rate of progress is nill.
@@ -403,23 +980,13 @@ public class Population {
 		}
 	}
 
-	/**
-	 * Get amount of time taken to run Genetic Algorithm on problem.
-	 */
-	private void printExecutionTime() {
-		// Record end time of running algorithm + printing results.
-		final long endTime = System.currentTimeMillis();
-		System.out.println("Total execution time: " + ((endTime - startTime) / 1000) + " seconds\t"
-				+ (endTime - startTime) + " ms");
-	}
-
 	/**
 	 * Get items of final solution.
 	 * 
 	 * @return finalItems
 	 */
 	public List<Item> getFinalItems() {
-		return finalItems;
+		return finalSolution == null ? null : finalSolution.getItems();
 	}
 
 	/**
@@ -428,16 +995,7 @@ public class Population {
 	 * @return finalResources
 	 */
 	public List<Resource> getFinalResources() {
-		return finalResources;
-	}
-
-	/**
-	 * Print results (fitnesses) for each individual currently in population.
-	 */
-	private void printIndividualFitness() {
-		for (Manager m : deadlocks) {
-			System.out.println("Indivdual Result: " + m.getResult());
-		}
+		return finalSolution == null ? null : finalSolution.getResources();
 	}
 
 	private void printDead() {
@@ -0,0 +1,511 @@
+package deadlock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * One instance of a Deadlock Prevention Problem: the Items, the Resources and
+ * the Plan of every Resource. The Plan is kept in primitive arrays which are
+ * shared (read only) by every individual in the population, with the
+ * Timeslots of each Resource stored next to each other. A Problem made from
+ * columns (e.g. by the plan file loader) only creates Item, Resource and
+ * Timeslot objects when they are first asked for.
+ *
+ * @author Shenal
+ *
+ */
+public class Problem {
+
+	private String[] itemNames = null; // Name of every Item.
+	private String[] resourceNames = null; // Name of every Resource.
+	private List<Item> items = null; // List of Items (built when first needed).
+	private List<Resource> resources = null; // List of Resources (built when first needed).
+	private volatile Timeslot[] slots = null; // Every Timeslot in every Resource Plan (set after items and resources).
+	private int[] slotItems = null; // Item index of every Timeslot.
+	private int[] slotTimes = null; // Time of every Timeslot.
+	private int[] slotClasses = null; // First Timeslot in the same Plan with the same Item and time.
+	private int[] resourceOffsets = null; // Index of the first Timeslot of each Resource (plus the total).
+	private int[] stepResources = null; // Resource placed at each step of an evaluation.
+	private int[] stepSlots = null; // Schedule index placed at each step of an evaluation.
+	private int[] slotSteps = null; // Step at which each Schedule index is placed.
+	private int[] positionSteps = null; // First step of each Schedule position (plus the total).
+	private int longestPlan = 0; // Number of Timeslots in the longest Plan.
+	private int checkpointSpacing = 1; // Schedule positions between saved evaluation states.
+	private int checkpointCount = 0; // Number of saved evaluation states per individual.
+
+	/**
+	 * Constructor for Problem from Items and Resources with finished Plans (User
+	 * Setup mode).
+	 *
+	 * @param items     - list of items.
+	 * @param resources - list of resources.
+	 */
+	public Problem(List<Item> items, List<Resource> resources) {
+		this.items = new ArrayList<Item>(items);
+		this.resources = new ArrayList<Resource>(resources);
+		Map<Item, Integer> itemIndexes = new IdentityHashMap<Item, Integer>();
+		for (Item item : this.items) {
+			itemIndexes.put(item, itemIndexes.size());
+		}
+		resourceOffsets = new int[resources.size() + 1];
+		for (int r = 0; r < resources.size(); r++) {
+			int planSize = resources.get(r).getPlan().size();
+			resourceOffsets[r + 1] = resourceOffsets[r] + planSize;
+			longestPlan = Math.max(longestPlan, planSize);
+		}
+		slots = new Timeslot[getSlotCount()];
+		slotItems = new int[getSlotCount()];
+		slotTimes = new int[getSlotCount()];
+		for (int r = 0; r < resources.size(); r++) {
+			int k = resourceOffsets[r];
+			for (Timeslot timeslot : resources.get(r).getPlan()) {
+				Integer index = itemIndexes.get(timeslot.getItem());
+				if (index == null) { // Item missing from the item list.
+					index = itemIndexes.size();
+					itemIndexes.put(timeslot.getItem(), index);
+					this.items.add(timeslot.getItem());
+				}
+				slots[k] = timeslot;
+				slotItems[k] = index;
+				slotTimes[k] = timeslot.getTime();
+				k++;
+			}
+		}
+		itemNames = new String[this.items.size()];
+		for (int i = 0; i < itemNames.length; i++) {
+			itemNames[i] = this.items.get(i).getName();
+		}
+		resourceNames = new String[resources.size()];
+		for (int r = 0; r < resourceNames.length; r++) {
+			resourceNames[r] = resources.get(r).getName();
+		}
+		buildSlotClasses();
+		buildPlacementOrder();
+	}
+
+	/**
+	 * Constructor for Problem from columns with the Timeslots of each Resource
+	 * already stored next to each other. The columns are not checked or copied.
+	 *
+	 * @param itemNames       - name of every item.
+	 * @param resourceNames   - name of every resource.
+	 * @param resourceOffsets - index of the first timeslot of each resource (plus
+	 *                        the total).
+	 * @param slotItems       - item index of every timeslot.
+	 * @param slotTimes       - time of every timeslot.
+	 */
+	Problem(String[] itemNames, String[] resourceNames, int[] resourceOffsets, int[] slotItems,
+			int[] slotTimes) {
+		this.itemNames = itemNames;
+		this.resourceNames = resourceNames;
+		this.resourceOffsets = resourceOffsets;
+		this.slotItems = slotItems;
+		this.slotTimes = slotTimes;
+		for (int r = 0; r < resourceNames.length; r++) {
+			longestPlan = Math.max(longestPlan, getPlanSize(r));
+		}
+		buildSlotClasses();
+		buildPlacementOrder();
+	}
+
+	/**
+	 * Create a Problem from one row per Timeslot (in Plan order for each
+	 * Resource, but with Resources mixed in any order). Item and Resource objects
+	 * are only created when they are first asked for.
+	 *
+	 * @param itemNames     - name of every item.
+	 * @param resourceNames - name of every resource.
+	 * @param rowItems      - item index of each row.
+	 * @param rowTimes      - time of each row.
+	 * @param rowResources  - resource index of each row.
+	 * @param rowCount      - number of rows used in the row arrays.
+	 * @return problem with the plans from the rows.
+	 */
+	public static Problem fromColumns(String[] itemNames, String[] resourceNames, int[] rowItems, int[] rowTimes,
+			int[] rowResources, int rowCount) {
+		// Counting sort of the rows by resource, keeping the order of each plan.
+		int[] resourceOffsets = new int[resourceNames.length + 1];
+		for (int row = 0; row < rowCount; row++) {
+			int r = rowResources[row];
+			if (r < 0 || r >= resourceNames.length || rowItems[row] < 0 || rowItems[row] >= itemNames.length) {
+				throw new IllegalArgumentException("Row " + row + " refers to a missing item or resource");
+			}
+			resourceOffsets[r + 1]++;
+		}
+		for (int r = 0; r < resourceNames.length; r++) {
+			resourceOffsets[r + 1] += resourceOffsets[r];
+		}
+		int[] next = Arrays.copyOf(resourceOffsets, resourceNames.length); // Next free index of each resource.
+		int[] slotItems = new int[rowCount];
+		int[] slotTimes = new int[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			int k = next[rowResources[row]]++;
+			slotItems[k] = rowItems[row];
+			slotTimes[k] = rowTimes[row];
+		}
+		return new Problem(itemNames, resourceNames, resourceOffsets, slotItems, slotTimes);
+	}
+
+	/**
+	 * Create Items, Resources and a randomised Plan for each Resource when running
+	 * a Random Setup Problem.
+	 *
+	 * @param itemNumber     - amount of items.
+	 * @param resourceNumber - amount of resources.
+	 * @param r              - random number generator for the plan.
+	 * @return problem with random plans.
+	 */
+	public static Problem random(int itemNumber, int resourceNumber, Random r) {
+		List<Item> items = new ArrayList<Item>();
+		List<Resource> resources = new ArrayList<Resource>();
+		for (int i = 0; i < itemNumber; i++) {
+			items.add(new Item("I" + Integer.toString(i + 1)));
+		}
+		for (int i = 0; i < resourceNumber; i++) {
+			resources.add(new Resource("R" + Integer.toString(i + 1)));
+		}
+		for (Resource resource : resources) {
+			int planSize = r.nextInt(items.size()) + 1;
+			for (int j = 0; j < planSize; j++) {
+				Item item = items.get(r.nextInt(items.size()));
+				int newTime = r.nextInt(20) + 1; // Make random time for timeslot.
+				resource.addToPlan(new Timeslot(item.getName(), item, newTime));
+			}
+		}
+		return new Problem(items, resources);
+	}
+
+	/**
+	 * Work out which Timeslots in each Plan are interchangeable (same Item and
+	 * same time), as swapping them never changes the fitness of a Schedule.
+	 */
+	private void buildSlotClasses() {
+		slotClasses = new int[getSlotCount()];
+		// Open addressing table from (item, time) to the first timeslot, reused for
+		// every plan and cleared through the list of used entries.
+		int tableSize = Integer.highestOneBit(Math.max(1, longestPlan) * 2 - 1) << 1;
+		int mask = tableSize - 1;
+		int[] table = new int[tableSize];
+		int[] used = new int[longestPlan]; // Table entries used by the current plan.
+		Arrays.fill(table, -1);
+		for (int r = 0; r < getResourceCount(); r++) {
+			int usedCount = 0;
+			for (int k = resourceOffsets[r]; k < resourceOffsets[r + 1]; k++) {
+				int hash = (slotItems[k] * 31 + slotTimes[k]) * 0x9e3779b9;
+				int index = (hash ^ (hash >>> 16)) & mask;
+				while (table[index] >= 0
+						&& (slotItems[table[index]] != slotItems[k] || slotTimes[table[index]] != slotTimes[k])) {
+					index = (index + 1) & mask;
+				}
+				if (table[index] < 0) {
+					table[index] = k;
+					used[usedCount++] = index;
+				}
+				slotClasses[k] = table[index];
+			}
+			for (int i = 0; i < usedCount; i++) {
+				table[used[i]] = -1;
+			}
+		}
+	}
+
+	/**
+	 * Work out which Resource and Schedule index is placed at each step of an
+	 * evaluation. Every Resource places its first Timeslot, then every Resource
+	 * places its second Timeslot and so on until the longest Plan has been placed.
+	 */
+	private void buildPlacementOrder() {
+		// Count Resources with a Timeslot at each position to find where each
+		// position starts in the placement order.
+		int[] positionStarts = new int[longestPlan + 1];
+		for (int r = 0; r < getResourceCount(); r++) {
+			for (int p = 0; p < getPlanSize(r); p++) {
+				positionStarts[p + 1]++;
+			}
+		}
+		for (int p = 0; p < longestPlan; p++) {
+			positionStarts[p + 1] += positionStarts[p];
+		}
+		positionSteps = positionStarts.clone();
+		stepResources = new int[getSlotCount()];
+		stepSlots = new int[getSlotCount()];
+		slotSteps = new int[getSlotCount()];
+		for (int r = 0; r < getResourceCount(); r++) { // Resources stay in list order at each position.
+			for (int p = 0; p < getPlanSize(r); p++) {
+				int step = positionStarts[p]++;
+				stepResources[step] = r;
+				stepSlots[step] = resourceOffsets[r] + p;
+				slotSteps[resourceOffsets[r] + p] = step;
+			}
+		}
+		// Save the evaluation state every few positions so that the checkpoints of
+		// one individual take about as much memory as its Schedule.
+		int stateSize = getItemCount() + getResourceCount();
+		int wantedCheckpoints = Math.max(1, getSlotCount() / Math.max(1, stateSize));
+		checkpointSpacing = Math.max(1, (longestPlan + wantedCheckpoints - 1) / wantedCheckpoints);
+		checkpointCount = longestPlan == 0 ? 0 : (longestPlan - 1) / checkpointSpacing;
+	}
+
+	/**
+	 * Get list of Items.
+	 *
+	 * @return items
+	 */
+	public List<Item> getItems() {
+		if (slots == null) {
+			buildObjects();
+		}
+		return items;
+	}
+
+	/**
+	 * Get list of Resources.
+	 *
+	 * @return resources
+	 */
+	public List<Resource> getResources() {
+		if (slots == null) {
+			buildObjects();
+		}
+		return resources;
+	}
+
+	/**
+	 * Create the Item, Resource and Timeslot objects for a Problem made from
+	 * columns.
+	 */
+	private synchronized void buildObjects() {
+		if (slots != null) {
+			return;
+		}
+		List<Item> newItems = new ArrayList<Item>(itemNames.length);
+		for (String name : itemNames) {
+			newItems.add(new Item(name));
+		}
+		List<Resource> newResources = new ArrayList<Resource>(resourceNames.length);
+		Timeslot[] newSlots = new Timeslot[getSlotCount()];
+		for (int r = 0; r < resourceNames.length; r++) {
+			Resource resource = new Resource(resourceNames[r]);
+			for (int k = resourceOffsets[r]; k < resourceOffsets[r + 1]; k++) {
+				Item item = newItems.get(slotItems[k]);
+				newSlots[k] = new Timeslot(item.getName(), item, slotTimes[k]);
+				resource.addToPlan(newSlots[k]);
+			}
+			newResources.add(resource);
+		}
+		items = newItems;
+		resources = newResources;
+		slots = newSlots; // Set last, as the other methods check it.
+	}
+
+	/**
+	 * Get the name of an Item.
+	 *
+	 * @param item - index of the item.
+	 * @return name of the item
+	 */
+	public String getItemName(int item) {
+		return itemNames[item];
+	}
+
+	/**
+	 * Get the name of a Resource.
+	 *
+	 * @param r - index of the resource.
+	 * @return name of the resource
+	 */
+	public String getResourceName(int r) {
+		return resourceNames[r];
+	}
+
+	/**
+	 * Get number of Items.
+	 *
+	 * @return number of items
+	 */
+	public int getItemCount() {
+		return itemNames.length;
+	}
+
+	/**
+	 * Get number of Resources.
+	 *
+	 * @return number of resources
+	 */
+	public int getResourceCount() {
+		return resourceOffsets.length - 1;
+	}
+
+	/**
+	 * Get number of Timeslots in every Plan.
+	 *
+	 * @return number of timeslots
+	 */
+	public int getSlotCount() {
+		return resourceOffsets[resourceOffsets.length - 1];
+	}
+
+	/**
+	 * Get index of the first Timeslot of a Resource.
+	 *
+	 * @param r - index of the resource.
+	 * @return offset of the resource
+	 */
+	public int getResourceOffset(int r) {
+		return resourceOffsets[r];
+	}
+
+	/**
+	 * Get number of Timeslots in the Plan of a Resource.
+	 *
+	 * @param r - index of the resource.
+	 * @return size of the resource plan
+	 */
+	public int getPlanSize(int r) {
+		return resourceOffsets[r + 1] - resourceOffsets[r];
+	}
+
+	/**
+	 * Get the Timeslot object for a Plan Timeslot.
+	 *
+	 * @param slot - index of the timeslot.
+	 * @return timeslot
+	 */
+	public Timeslot getSlot(int slot) {
+		if (slots == null) {
+			buildObjects();
+		}
+		return slots[slot];
+	}
+
+	/**
+	 * Get the Item index of a Plan Timeslot.
+	 *
+	 * @param slot - index of the timeslot.
+	 * @return index of the item
+	 */
+	public int getSlotItem(int slot) {
+		return slotItems[slot];
+	}
+
+	/**
+	 * Get the time of a Plan Timeslot.
+	 *
+	 * @param slot - index of the timeslot.
+	 * @return time of the timeslot
+	 */
+	public int getSlotTime(int slot) {
+		return slotTimes[slot];
+	}
+
+	/**
+	 * Get the Item index for every Plan Timeslot. Must not be modified.
+	 *
+	 * @return slotItems
+	 */
+	int[] getSlotItems() {
+		return slotItems;
+	}
+
+	/**
+	 * Get the time of every Plan Timeslot. Must not be modified.
+	 *
+	 * @return slotTimes
+	 */
+	int[] getSlotTimes() {
+		return slotTimes;
+	}
+
+	/**
+	 * Get the interchangeable Timeslot class of every Plan Timeslot (the first
+	 * Timeslot in the same Plan with the same Item and time). Must not be
+	 * modified.
+	 *
+	 * @return slotClasses
+	 */
+	int[] getSlotClasses() {
+		return slotClasses;
+	}
+
+	/**
+	 * Get the Resource placed at each step of an evaluation. Must not be modified.
+	 *
+	 * @return stepResources
+	 */
+	int[] getStepResources() {
+		return stepResources;
+	}
+
+	/**
+	 * Get the Schedule index placed at each step of an evaluation. Must not be
+	 * modified.
+	 *
+	 * @return stepSlots
+	 */
+	int[] getStepSlots() {
+		return stepSlots;
+	}
+
+	/**
+	 * Get the step at which each Schedule index is placed. Must not be modified.
+	 *
+	 * @return slotSteps
+	 */
+	int[] getSlotSteps() {
+		return slotSteps;
+	}
+
+	/**
+	 * Get the first step of a Schedule position. Steps for position p run from
+	 * getPositionStep(p) to getPositionStep(p + 1).
+	 *
+	 * @param position - schedule position (up to the longest plan size).
+	 * @return first step of the position
+	 */
+	public int getPositionStep(int position) {
+		return positionSteps[Math.min(position, longestPlan)];
+	}
+
+	/**
+	 * Get number of Timeslots in the longest Plan.
+	 *
+	 * @return longestPlan
+	 */
+	public int getLongestPlan() {
+		return longestPlan;
+	}
+
+	/**
+	 * Get number of Schedule positions between saved evaluation states.
+	 *
+	 * @return checkpointSpacing
+	 */
+	public int getCheckpointSpacing() {
+		return checkpointSpacing;
+	}
+
+	/**
+	 * Get number of saved evaluation states per individual. Checkpoint c (from 1)
+	 * holds the state at the start of position c * checkpointSpacing.
+	 *
+	 * @return checkpointCount
+	 */
+	public int getCheckpointCount() {
+		return checkpointCount;
+	}
+
+	/**
+	 * Get number of values in one saved evaluation state (the time each Item is
+	 * freed followed by the time each Resource is free).
+	 *
+	 * @return size of one state
+	 */
+	public int getStateSize() {
+		return getItemCount() + getResourceCount();
+	}
+
+}
@@ -0,0 +1,326 @@
+package deadlock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary file holding a Problem and, optionally, a solved Schedule for it.
+ * Every number is a big-endian int, so the columns can be read straight out of
+ * the memory mapped file:
+ *
+ * <pre>
+ * magic "DLPF", version, flags (1 = has solution)
+ * itemCount, resourceCount, slotCount
+ * item names:     byteCount, offsets[itemCount + 1], UTF-8 bytes (padded to 4)
+ * resource names: byteCount, offsets[resourceCount + 1], UTF-8 bytes (padded to 4)
+ * resourceOffsets[resourceCount + 1]   first Timeslot of each Resource Plan
+ * slotItems[slotCount]                 item id of each Timeslot
+ * slotTimes[slotCount]                 time of each Timeslot
+ * if solved: makespan, order[slotCount] (position in its own Plan of the
+ *            Timeslot at each Schedule index)
+ * </pre>
+ *
+ * @author Shenal
+ *
+ */
+public class ProblemFile {
+
+	private static final int MAGIC = 0x444C5046; // "DLPF"
+	private static final int VERSION = 1; // Version of the format written.
+	private static final int HAS_SOLUTION = 1; // Flag for a file with a solved Schedule.
+
+	private Problem problem = null; // Problem in the file.
+	private Manager solution = null; // Solved Schedule in the file (null if there is none).
+
+	/**
+	 * Constructor for ProblemFile.
+	 *
+	 * @param problem  - problem in the file.
+	 * @param solution - solved schedule in the file (null if there is none).
+	 */
+	private ProblemFile(Problem problem, Manager solution) {
+		this.problem = problem;
+		this.solution = solution;
+	}
+
+	/**
+	 * Get the Problem in the file.
+	 *
+	 * @return problem
+	 */
+	public Problem getProblem() {
+		return problem;
+	}
+
+	/**
+	 * Get the solved Schedule in the file.
+	 *
+	 * @return solution (evaluated), or null if the file has no solution.
+	 */
+	public Manager getSolution() {
+		return solution;
+	}
+
+	/**
+	 * Read the Problem from a problem file, or from a plan CSV file if the file
+	 * does not start with the problem file magic number.
+	 *
+	 * @param file - problem file or plan CSV file.
+	 * @return problem
+	 * @throws IOException if the file can not be read or is not valid.
+	 */
+	public static Problem readProblem(Path file) throws IOException {
+		if (isProblemFile(file)) {
+			return read(file).getProblem();
+		}
+		return PlanReader.read(file);
+	}
+
+	/**
+	 * Check whether a file starts like a problem file.
+	 *
+	 * @param file - file to be checked.
+	 * @return true if the file has the problem file magic number.
+	 * @throws IOException if the file can not be read.
+	 */
+	public static boolean isProblemFile(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			while (magic.hasRemaining() && channel.read(magic) >= 0) {
+				// Keep reading until four bytes or the end of the file.
+			}
+			return !(magic.hasRemaining()) && magic.getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * Write a Problem and optionally a solution for it.
+	 *
+	 * @param file     - file to be written.
+	 * @param problem  - problem to be written.
+	 * @param solution - evaluated solution of the problem (null for none).
+	 * @throws IOException if the file can not be written.
+	 */
+	public static void write(Path file, Problem problem, Manager solution) throws IOException {
+		if (solution != null && solution.getProblem() != problem) {
+			throw new IllegalArgumentException("Solution is for a different problem");
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ChannelWriter out = new ChannelWriter(channel);
+			out.putInt(MAGIC);
+			out.putInt(VERSION);
+			out.putInt(solution != null ? HAS_SOLUTION : 0);
+			out.putInt(problem.getItemCount());
+			out.putInt(problem.getResourceCount());
+			out.putInt(problem.getSlotCount());
+			String[] itemNames = new String[problem.getItemCount()];
+			for (int i = 0; i < itemNames.length; i++) {
+				itemNames[i] = problem.getItemName(i);
+			}
+			writeNames(out, itemNames);
+			String[] resourceNames = new String[problem.getResourceCount()];
+			for (int r = 0; r < resourceNames.length; r++) {
+				resourceNames[r] = problem.getResourceName(r);
+			}
+			writeNames(out, resourceNames);
+			for (int r = 0; r <= problem.getResourceCount(); r++) {
+				out.putInt(r < problem.getResourceCount() ? problem.getResourceOffset(r) : problem.getSlotCount());
+			}
+			for (int k = 0; k < problem.getSlotCount(); k++) {
+				out.putInt(problem.getSlotItem(k));
+			}
+			for (int k = 0; k < problem.getSlotCount(); k++) {
+				out.putInt(problem.getSlotTime(k));
+			}
+			if (solution != null) {
+				out.putInt(solution.getResult());
+				int[] schedule = solution.getSchedule();
+				for (int r = 0; r < problem.getResourceCount(); r++) {
+					int offset = problem.getResourceOffset(r);
+					for (int k = offset; k < offset + problem.getPlanSize(r); k++) {
+						out.putInt(schedule[k] - offset);
+					}
+				}
+			}
+			out.flush();
+		}
+	}
+
+	/**
+	 * Write a name dictionary.
+	 *
+	 * @param out   - output for the file.
+	 * @param names - names to be written.
+	 * @throws IOException if the file can not be written.
+	 */
+	private static void writeNames(ChannelWriter out, String[] names) throws IOException {
+		byte[][] encoded = new byte[names.length][];
+		int byteCount = 0;
+		for (int i = 0; i < names.length; i++) {
+			encoded[i] = names[i].getBytes(StandardCharsets.UTF_8);
+			byteCount += encoded[i].length;
+		}
+		out.putInt(byteCount);
+		int offset = 0;
+		out.putInt(offset);
+		for (byte[] name : encoded) {
+			offset += name.length;
+			out.putInt(offset);
+		}
+		for (byte[] name : encoded) {
+			out.putBytes(name);
+		}
+		out.putBytes(new byte[(4 - byteCount % 4) % 4]); // Keep the ints after the names aligned.
+	}
+
+	/**
+	 * Read a problem file. A solution in the file is evaluated again and must
+	 * give the makespan saved with it.
+	 *
+	 * @param file - file to be read.
+	 * @return contents of the file.
+	 * @throws IOException if the file can not be read or is not a valid problem
+	 *                     file.
+	 */
+	public static ProblemFile read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(file + ": file is too large");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			try {
+				return read(file, buffer);
+			} catch (RuntimeException e) { // Buffer underflow or bad values.
+				throw new IOException(file + ": not a valid problem file (" + e.getMessage() + ")", e);
+			}
+		}
+	}
+
+	/**
+	 * Read the contents of a mapped problem file.
+	 *
+	 * @param file   - file being read (for error messages).
+	 * @param buffer - mapped file.
+	 * @return contents of the file.
+	 * @throws IOException if the file is not a valid problem file.
+	 */
+	private static ProblemFile read(Path file, ByteBuffer buffer) throws IOException {
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException(file + ": not a problem file");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException(file + ": unsupported version " + version);
+		}
+		int flags = buffer.getInt();
+		int itemCount = checkCount(buffer.getInt());
+		int resourceCount = checkCount(buffer.getInt());
+		int slotCount = checkCount(buffer.getInt());
+		String[] itemNames = readNames(buffer, itemCount);
+		String[] resourceNames = readNames(buffer, resourceCount);
+		int[] resourceOffsets = readInts(buffer, resourceCount + 1);
+		int[] slotItems = readInts(buffer, slotCount);
+		int[] slotTimes = readInts(buffer, slotCount);
+		if (resourceOffsets[0] != 0 || resourceOffsets[resourceCount] != slotCount) {
+			throw new IOException(file + ": plan offsets do not match the number of timeslots");
+		}
+		for (int r = 0; r < resourceCount; r++) {
+			if (resourceOffsets[r + 1] < resourceOffsets[r]) {
+				throw new IOException(file + ": plan offsets are not in order");
+			}
+		}
+		for (int item : slotItems) {
+			if (item < 0 || item >= itemCount) {
+				throw new IOException(file + ": timeslot refers to a missing item");
+			}
+		}
+		Problem problem = new Problem(itemNames, resourceNames, resourceOffsets, slotItems, slotTimes);
+		Manager solution = null;
+		if ((flags & HAS_SOLUTION) != 0) {
+			int makespan = buffer.getInt();
+			int[] schedule = readInts(buffer, slotCount);
+			for (int r = 0; r < resourceCount; r++) {
+				for (int k = resourceOffsets[r]; k < resourceOffsets[r + 1]; k++) {
+					schedule[k] += resourceOffsets[r];
+				}
+			}
+			solution = new Manager(problem, schedule);
+			solution.calculateScheduleTime(new ScheduleEvaluator(problem));
+			if (solution.getResult() != makespan) {
+				throw new IOException(file + ": saved makespan " + makespan + " does not match the schedule ("
+						+ solution.getResult() + ")");
+			}
+		}
+		return new ProblemFile(problem, solution);
+	}
+
+	/**
+	 * Check that a count read from the file is not negative.
+	 *
+	 * @param count - count read from the file.
+	 * @return count
+	 */
+	private static int checkCount(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("negative count");
+		}
+		return count;
+	}
+
+	/**
+	 * Read a name dictionary.
+	 *
+	 * @param buffer - mapped file at the start of the dictionary.
+	 * @param count  - number of names.
+	 * @return names
+	 */
+	private static String[] readNames(ByteBuffer buffer, int count) {
+		int byteCount = checkCount(buffer.getInt());
+		if (byteCount > buffer.remaining()) {
+			throw new IllegalArgumentException("name dictionary is longer than the file");
+		}
+		int[] offsets = readInts(buffer, count + 1);
+		if (offsets[0] < 0 || offsets[count] > byteCount) {
+			throw new IllegalArgumentException("name offsets are outside the dictionary");
+		}
+		for (int i = 0; i < count; i++) {
+			if (offsets[i + 1] < offsets[i]) {
+				throw new IllegalArgumentException("name offsets are not in order");
+			}
+		}
+		byte[] bytes = new byte[byteCount];
+		buffer.get(bytes);
+		buffer.position(buffer.position() + (4 - byteCount % 4) % 4);
+		String[] names = new String[count];
+		for (int i = 0; i < count; i++) {
+			names[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+		}
+		return names;
+	}
+
+	/**
+	 * Read an int column through an int view of the mapped file.
+	 *
+	 * @param buffer - mapped file at the start of the column.
+	 * @param count  - number of ints.
+	 * @return column
+	 */
+	private static int[] readInts(ByteBuffer buffer, int count) {
+		if (count > buffer.remaining() / 4) {
+			throw new IllegalArgumentException("file is cut short");
+		}
+		IntBuffer ints = buffer.slice().asIntBuffer();
+		int[] column = new int[count];
+		ints.get(column);
+		buffer.position(buffer.position() + count * 4);
+		return column;
+	}
+
+}
@@ -15,9 +15,7 @@ public class Resource {
 	private String name = null; // Name of this Resource.
 	private List<Timeslot> plan = new ArrayList<Timeslot>(); // Plan for this Resource.
 	private List<Timeslot> schedule = new ArrayList<Timeslot>(); // Schedule for this Resource.
-	private int time = 0; // Amount of time for a new Timeslot to be added to Plan/Schedule.
 	private int totalTime = 0; // Total time for this Resource to finish Schedule.
-	private int expandedSize = 0; // Account for expanded size of Schedule after adding each new Delay Timeslot.
 	
 	/**
 	 * Constructor for Resource Class.
@@ -68,31 +66,6 @@ public class Resource {
 		return schedule;
 	}
 	
-	/**
-	 * Get the timespan taken by an Item to use this Resource in a Timeslot.
-	 * 
-	 * @return time
-	 */
-	public int getTime() {
-		return time;
-	}
-	
-	/**
-	 * Set the timespan duration for the current Item occupying this Resource.
-	 * 
-	 * @param newTime
-	 */
-	public void setTime(int newTime) {
-		time = newTime;
-	}
-	
-	/**
-	 * Reset time value in this Resource
-	 */
-	public void resetTime() {
-		time = 0;
-	}
-	
 	/**
 	 * Get the total amount of time for the resource to be used by each requesting
 	 * item.
@@ -103,13 +76,6 @@ public class Resource {
 		return totalTime;
 	}
 	
-	/**
-	 * Reset total time value in this resource.
-	 */
-	public void resetTotalTime() {
-		totalTime = 0;
-	}
-	
 	/**
 	 * Number of timeslots in the schedule.
 	 * 
@@ -153,52 +119,6 @@ public class Resource {
 		schedule.clear();
 	}
 
-	/**
-	 * Add time from new Timeslot to the amount of time taken for Resource to
-	 * complete the Schedule while accounting for delays.
-	 * 
-	 * @param newTime      - time duration of new timeslot.
-	 * @param previousTime - time elapsed for current item in its previous timeslot.
-	 */
-	public void addToTotalTime(int newTime, int previousTime) {
-		// total time = totalTime + the new timeslot time + waiting time for current item to be freed.
-		totalTime += newTime + (previousTime - totalTime);
-	}
-	
-	/**
-	 * Add time of new Timeslot to total time for Resource.
-	 * 
-	 * @param newTime - time for new timeslot
-	 */
-	public void addTime(int newTime) {
-		totalTime += newTime;
-	}
-	
-	/**
-	 * Get current value of expanded size after one or more delays. have been added
-	 * to the schedule
-	 * 
-	 * @return expandedSize
-	 */
-	public int getExpandedSize() {
-		return expandedSize;
-	}
-	
-	/**
-	 * Increment expanded size to account for a new delay added.
-	 * to the resource schedule
-	 */
-	public void expandScheduleSize() {
-		expandedSize += 1;
-	}
-	
-	/**
-	 * Reset the value of expanded size to recalculate delays.
-	 */
-	public void resetExpandedSize() {
-		expandedSize = 0;
-	}	
-	
 	/**
 	 * String representation for this Resource.
 	 */
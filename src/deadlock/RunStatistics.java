@@ -0,0 +1,290 @@
+package deadlock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Statistics for one run of the Genetic Algorithm: generations, evaluations,
+ * best fitness, elapsed time and the memory allocated by the thread running the
+ * population. Memory allocated by pool threads during parallel evaluation is
+ * not counted.
+ *
+ * @author Shenal
+ *
+ */
+public class RunStatistics {
+
+	private volatile long generations = 0; // Generations finished.
+	private volatile long evaluations = 0; // Individuals evaluated.
+	private volatile long cacheLookups = 0; // Children looked up in the fitness cache.
+	private volatile long cacheHits = 0; // Children found in the fitness cache.
+	private volatile int bestResult = Integer.MAX_VALUE; // Best fitness found so far.
+	private volatile long improvedAt = 0; // Generation in which the best fitness last improved.
+	private volatile long startNanos = 0; // Time when the run started.
+	private volatile long endNanos = -1; // Time when the run stopped (-1 while running).
+	private long threadId = -1; // Thread running the population.
+	private long startAllocatedBytes = -1; // Bytes allocated by the thread before the first generation.
+	private volatile long allocatedBytes = -1; // Bytes allocated since the first generation (-1 if unknown).
+	private long restoredAllocatedBytes = 0; // Bytes allocated before the run was resumed (-1 if unknown).
+
+	/**
+	 * Start timing the run on the current thread.
+	 */
+	void start() {
+		startNanos = System.nanoTime();
+		endNanos = -1;
+		threadId = Thread.currentThread().getId();
+	}
+
+	/**
+	 * Carry on the statistics of a run saved in a checkpoint, on the current
+	 * thread. The elapsed time carries on from the saved run time.
+	 *
+	 * @param checkpoint - checkpoint of the run.
+	 */
+	void restore(Checkpoint checkpoint) {
+		start();
+		startNanos -= checkpoint.elapsedNanos;
+		generations = checkpoint.generations;
+		evaluations = checkpoint.evaluations;
+		cacheLookups = checkpoint.cacheLookups;
+		cacheHits = checkpoint.cacheHits;
+		bestResult = checkpoint.bestResult;
+		improvedAt = checkpoint.improvedAt;
+		restoredAllocatedBytes = checkpoint.allocatedBytes;
+	}
+
+	/**
+	 * Save the statistics in a checkpoint. Must be called from the thread
+	 * running the population.
+	 *
+	 * @param checkpoint - checkpoint of the run.
+	 */
+	void save(Checkpoint checkpoint) {
+		checkpoint.generations = generations;
+		checkpoint.evaluations = evaluations;
+		checkpoint.cacheLookups = cacheLookups;
+		checkpoint.cacheHits = cacheHits;
+		checkpoint.bestResult = bestResult;
+		checkpoint.improvedAt = improvedAt;
+		checkpoint.elapsedNanos = getElapsedNanos();
+		sampleAllocation();
+		checkpoint.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Start counting allocated memory from the first generation, so that the
+	 * initial population is not counted. A resumed run carries on from the
+	 * memory allocated before its checkpoint.
+	 */
+	void startGenerations() {
+		startAllocatedBytes = threadAllocatedBytes(threadId);
+		allocatedBytes = startAllocatedBytes < 0 || restoredAllocatedBytes < 0 ? -1 : restoredAllocatedBytes;
+	}
+
+	/**
+	 * Record that a generation has finished.
+	 */
+	void generationFinished() {
+		generations++;
+	}
+
+	/**
+	 * Record that individuals have been evaluated.
+	 *
+	 * @param count - number of individuals evaluated.
+	 */
+	void addEvaluations(int count) {
+		evaluations += count;
+	}
+
+	/**
+	 * Record the fitness of an evaluated individual.
+	 *
+	 * @param result - fitness of the individual.
+	 */
+	void recordResult(int result) {
+		if (result < bestResult) {
+			bestResult = result;
+			improvedAt = generations;
+		}
+	}
+
+	/**
+	 * Record lookups in the fitness cache.
+	 *
+	 * @param lookups - number of children looked up.
+	 * @param hits    - number of children found.
+	 */
+	void addCacheLookups(int lookups, int hits) {
+		cacheLookups += lookups;
+		cacheHits += hits;
+	}
+
+	/**
+	 * Update the memory allocated since the first generation. Must be called from
+	 * the thread running the population.
+	 */
+	void sampleAllocation() {
+		if (startAllocatedBytes >= 0 && restoredAllocatedBytes >= 0) {
+			allocatedBytes = restoredAllocatedBytes + threadAllocatedBytes(threadId) - startAllocatedBytes;
+		}
+	}
+
+	/**
+	 * Stop timing the run.
+	 */
+	void stop() {
+		sampleAllocation();
+		endNanos = System.nanoTime();
+	}
+
+	/**
+	 * Combine the statistics of populations run side by side (islands) into the
+	 * statistics of the whole run. Generations, evaluations, cache lookups and
+	 * allocated memory are added up, the best fitness is the best of any
+	 * population and the elapsed time is that of the longest run.
+	 *
+	 * @param runs - statistics of each population (at least one), which have
+	 *             stopped.
+	 * @return statistics of the whole run.
+	 */
+	static RunStatistics combine(List<RunStatistics> runs) {
+		RunStatistics total = new RunStatistics();
+		long elapsedNanos = 0;
+		long withoutImprovement = Long.MAX_VALUE;
+		total.allocatedBytes = 0;
+		for (RunStatistics run : runs) {
+			total.generations += run.generations;
+			total.evaluations += run.evaluations;
+			total.cacheLookups += run.cacheLookups;
+			total.cacheHits += run.cacheHits;
+			total.bestResult = Math.min(total.bestResult, run.bestResult);
+			elapsedNanos = Math.max(elapsedNanos, run.getElapsedNanos());
+			withoutImprovement = Math.min(withoutImprovement, run.getGenerationsWithoutImprovement());
+			if (run.allocatedBytes < 0 || total.allocatedBytes < 0) {
+				total.allocatedBytes = -1;
+			} else {
+				total.allocatedBytes += run.allocatedBytes;
+			}
+		}
+		total.improvedAt = total.generations - withoutImprovement;
+		total.endNanos = elapsedNanos; // Elapsed time is measured from a start of 0.
+		return total;
+	}
+
+	/**
+	 * Get number of generations finished.
+	 *
+	 * @return generations
+	 */
+	public long getGenerations() {
+		return generations;
+	}
+
+	/**
+	 * Get number of individuals evaluated.
+	 *
+	 * @return evaluations
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Get the best fitness found so far.
+	 *
+	 * @return bestResult (Integer.MAX_VALUE before the first evaluation).
+	 */
+	public int getBestResult() {
+		return bestResult;
+	}
+
+	/**
+	 * Get number of generations since the best fitness last improved.
+	 *
+	 * @return generations without improvement.
+	 */
+	public long getGenerationsWithoutImprovement() {
+		return generations - improvedAt;
+	}
+
+	/**
+	 * Get number of children looked up in the fitness cache.
+	 *
+	 * @return cacheLookups
+	 */
+	public long getCacheLookups() {
+		return cacheLookups;
+	}
+
+	/**
+	 * Get number of children found in the fitness cache (and not evaluated).
+	 *
+	 * @return cacheHits
+	 */
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	/**
+	 * Get fraction of lookups found in the fitness cache.
+	 *
+	 * @return hit rate between 0 and 1.
+	 */
+	public double getCacheHitRate() {
+		long lookups = cacheLookups;
+		return lookups == 0 ? 0 : (double) cacheHits / lookups;
+	}
+
+	/**
+	 * Get time since the run started (or the length of the run once stopped).
+	 *
+	 * @return elapsed time in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		long end = endNanos;
+		return (end < 0 ? System.nanoTime() : end) - startNanos;
+	}
+
+	/**
+	 * Get memory allocated by the thread running the population since the first
+	 * generation, as of the latest sample.
+	 *
+	 * @return allocated bytes, or -1 if the JVM cannot measure it.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Get average memory allocated per generation.
+	 *
+	 * @return allocated bytes per generation, or -1 if the JVM cannot measure it.
+	 */
+	public long getAllocatedBytesPerGeneration() {
+		if (allocatedBytes < 0) {
+			return -1;
+		}
+		return generations == 0 ? 0 : allocatedBytes / generations;
+	}
+
+	/**
+	 * Get memory allocated by a thread so far.
+	 *
+	 * @param id - id of the thread.
+	 * @return allocated bytes, or -1 if the JVM cannot measure it.
+	 */
+	private static long threadAllocatedBytes(long id) {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+				return sunBean.getThreadAllocatedBytes(id);
+			}
+		}
+		return -1;
+	}
+
+}
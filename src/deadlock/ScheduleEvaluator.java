@@ -0,0 +1,209 @@
+package deadlock;
+
+import java.util.Arrays;
+
+/**
+ * Calculates the total time (makespan) needed for every Resource to finish its
+ * Schedule in one candidate solution. Timeslots are placed position by
+ * position, Resource by Resource, while the time at which each Item is freed
+ * and the time at which each Resource becomes free are kept in primitive
+ * arrays, so one evaluation costs time linear to the total number of
+ * Timeslots. Each evaluator holds the working state for one evaluation at a
+ * time and can be reused for any individual of the same Problem.
+ *
+ * When an individual is a copy of an evaluated parent with a few changed
+ * positions (after crossover or mutation), only the positions from the
+ * earliest change onwards are placed again, starting from the parent's saved
+ * state, and placing stops early once the state matches the parent again.
+ *
+ * @author Shenal
+ *
+ */
+public class ScheduleEvaluator {
+
+	private Problem problem = null; // Problem shared by every individual.
+	private int[] itemFreeAt = null; // Time at which each Item is released by its latest Resource.
+	private int[] resourceTimes = null; // Time at which each Resource finishes its latest Timeslot.
+
+	/**
+	 * Constructor for ScheduleEvaluator.
+	 *
+	 * @param problem - problem every evaluated schedule belongs to.
+	 */
+	public ScheduleEvaluator(Problem problem) {
+		this.problem = problem;
+		itemFreeAt = new int[problem.getItemCount()];
+		resourceTimes = new int[problem.getResourceCount()];
+	}
+
+	/**
+	 * Place every Timeslot of every Resource Schedule from the start.
+	 *
+	 * @param schedule   - plan timeslot placed at each schedule index.
+	 * @param startTimes - filled with the start time of the timeslot at each
+	 *                   schedule index (null if not needed).
+	 * @return makespan - time taken for every resource to finish its schedule.
+	 */
+	public int evaluate(int[] schedule, int[] startTimes) {
+		Arrays.fill(itemFreeAt, 0);
+		Arrays.fill(resourceTimes, 0);
+		place(schedule, startTimes, 0, problem.getSlotCount());
+		return getMakespan();
+	}
+
+	/**
+	 * Evaluate an individual, saving its evaluation state (checkpoints) inside
+	 * the individual. If the individual is a changed copy of an
+	 * evaluated parent, evaluation restarts from the last checkpoint before the
+	 * earliest change instead of from the start.
+	 *
+	 * @param m - individual to be evaluated.
+	 * @return makespan - time taken for every resource to finish its schedule.
+	 */
+	public int evaluate(Manager m) {
+		int stateSize = problem.getStateSize();
+		int spacing = problem.getCheckpointSpacing();
+		int checkpointCount = problem.getCheckpointCount();
+		int[] schedule = m.getSchedule();
+		int[] checkpoints = m.getCheckpoints();
+		Manager baseline = m.getBaseline();
+		boolean delta = baseline != null && baseline.hasSavedState();
+
+		int first = 0; // First segment (between two checkpoints) to be placed.
+		int converged = checkpointCount + 1; // First checkpoint at which the parent's state may be reused.
+		if (delta) {
+			int[] baseCheckpoints = baseline.getCheckpoints();
+			if (m.getDirtyFrom() > m.getDirtyTo()) { // Nothing changed since the parent.
+				System.arraycopy(baseCheckpoints, 0, checkpoints, 0, checkpoints.length);
+				return baseline.getResult();
+			}
+			first = m.getDirtyFrom() / spacing;
+			converged = m.getDirtyTo() / spacing + 1;
+			// Everything before the earliest change is the same as the parent.
+			System.arraycopy(baseCheckpoints, 0, checkpoints, 0, first * stateSize);
+		}
+		restore(checkpoints, first);
+
+		for (int segment = first; segment <= checkpointCount; segment++) {
+			if (segment > first) {
+				int offset = (segment - 1) * stateSize;
+				if (delta && segment >= converged && matches(baseline.getCheckpoints(), offset)) {
+					// Same state as the parent after every change, so the rest is the same too.
+					System.arraycopy(baseline.getCheckpoints(), offset, checkpoints, offset,
+							checkpoints.length - offset);
+					return baseline.getResult();
+				}
+				save(checkpoints, offset);
+			}
+			place(schedule, null, problem.getPositionStep(segment * spacing),
+					problem.getPositionStep((segment + 1) * spacing));
+		}
+		return getMakespan();
+	}
+
+	/**
+	 * Place the Timeslots for a range of steps.
+	 *
+	 * @param schedule   - plan timeslot placed at each schedule index.
+	 * @param startTimes - start time of the timeslot at each schedule index (null
+	 *                   if not needed).
+	 * @param from       - first step to be placed.
+	 * @param to         - step after the last step to be placed.
+	 */
+	private void place(int[] schedule, int[] startTimes, int from, int to) {
+		int[] stepResources = problem.getStepResources();
+		int[] stepSlots = problem.getStepSlots();
+		int[] slotItems = problem.getSlotItems();
+		int[] slotTimes = problem.getSlotTimes();
+		for (int step = from; step < to; step++) {
+			int r = stepResources[step];
+			int index = stepSlots[step];
+			int slot = schedule[index];
+			int item = slotItems[slot];
+			// Timeslot starts when both the Resource and the Item are free.
+			int start = Math.max(resourceTimes[r], itemFreeAt[item]);
+			if (startTimes != null) {
+				startTimes[index] = start;
+			}
+			resourceTimes[r] = start + slotTimes[slot];
+			itemFreeAt[item] = resourceTimes[r];
+		}
+	}
+
+	/**
+	 * Load the state saved at a checkpoint (checkpoint 0 is the empty start).
+	 *
+	 * @param checkpoints - saved states of an individual.
+	 * @param checkpoint  - checkpoint to be loaded.
+	 */
+	private void restore(int[] checkpoints, int checkpoint) {
+		if (checkpoint == 0) {
+			Arrays.fill(itemFreeAt, 0);
+			Arrays.fill(resourceTimes, 0);
+			return;
+		}
+		int offset = (checkpoint - 1) * problem.getStateSize();
+		System.arraycopy(checkpoints, offset, itemFreeAt, 0, itemFreeAt.length);
+		System.arraycopy(checkpoints, offset + itemFreeAt.length, resourceTimes, 0, resourceTimes.length);
+	}
+
+	/**
+	 * Save the current state into a checkpoint.
+	 *
+	 * @param checkpoints - saved states of an individual.
+	 * @param offset      - start of the checkpoint in checkpoints.
+	 */
+	private void save(int[] checkpoints, int offset) {
+		System.arraycopy(itemFreeAt, 0, checkpoints, offset, itemFreeAt.length);
+		System.arraycopy(resourceTimes, 0, checkpoints, offset + itemFreeAt.length, resourceTimes.length);
+	}
+
+	/**
+	 * Check whether the current state is the same as a saved state.
+	 *
+	 * @param checkpoints - saved states of another individual.
+	 * @param offset      - start of the checkpoint in checkpoints.
+	 * @return true if every time is the same.
+	 */
+	private boolean matches(int[] checkpoints, int offset) {
+		for (int i = 0; i < itemFreeAt.length; i++) {
+			if (checkpoints[offset + i] != itemFreeAt[i]) {
+				return false;
+			}
+		}
+		offset += itemFreeAt.length;
+		for (int r = 0; r < resourceTimes.length; r++) {
+			if (checkpoints[offset + r] != resourceTimes[r]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the longest total time out of every Resource.
+	 *
+	 * @return makespan
+	 */
+	private int getMakespan() {
+		int makespan = 0;
+		for (int time : resourceTimes) {
+			if (makespan < time) {
+				makespan = time;
+			}
+		}
+		return makespan;
+	}
+
+	/**
+	 * Get the total time for a Resource to finish its Schedule in the latest
+	 * full evaluation.
+	 *
+	 * @param r - index of the resource.
+	 * @return total time of the resource
+	 */
+	public int getTotalTime(int r) {
+		return resourceTimes[r];
+	}
+
+}
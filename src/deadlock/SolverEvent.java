@@ -0,0 +1,44 @@
+package deadlock;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for part of a run of the Genetic Algorithm, with
+ * the size of the problem and population. Events are only created for one
+ * generation in every SAMPLE_INTERVAL (and for the initial population), so they
+ * cost almost nothing even while a recording is running and are always left
+ * in: multiply the durations by the sample interval for the time of the whole
+ * run. A recording can be started on a live run with
+ * "jcmd PID JFR.start duration=60s filename=run.jfr".
+ *
+ * @author Shenal
+ *
+ */
+@Category({ "Deadlock Solver" })
+@StackTrace(false)
+abstract class SolverEvent extends Event {
+
+	static final int SAMPLE_INTERVAL = 32; // One generation in this many is recorded.
+
+	@Label("Items")
+	int items; // Number of items in the problem.
+
+	@Label("Resources")
+	int resources; // Number of resources in the problem.
+
+	@Label("Timeslots")
+	int timeslots; // Number of timeslots in every plan.
+
+	@Label("Population Size")
+	int populationSize; // Number of individuals in the population.
+
+	@Label("Generation")
+	long generation; // Generations finished before this event.
+
+	@Label("Sample Interval")
+	int sampleInterval = SAMPLE_INTERVAL; // One generation in this many is recorded.
+
+}
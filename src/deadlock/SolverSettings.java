@@ -0,0 +1,435 @@
+package deadlock;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Settings for one run of the Genetic Algorithm on a Deadlock Prevention
+ * Problem.
+ *
+ * @author Shenal
+ *
+ */
+public class SolverSettings {
+
+	private int populationSize = 100; // Number of individuals in the population.
+	private Long seed = null; // Seed for the random number generator (null for a random seed).
+	private ForkJoinPool pool = null; // Pool for evaluating individuals (null to evaluate serially).
+	private boolean checkProgress = false; // Stop once the average fitness stops changing.
+	private int islandCount = 1; // Number of islands (sub-populations) in island mode.
+	private int migrationInterval = 100; // Generations between migrations in island mode.
+	private int migrantCount = 2; // Individuals sent by each island in one migration.
+	private MigrationTopology topology = MigrationTopology.RING; // Where islands send migrants.
+	private BreedingMode mode = BreedingMode.STEADY_STATE; // How individuals are replaced.
+	private int offspringCount = 0; // Children per generation in generational mode (0 for population size).
+	private int cacheSize = 1 << 16; // Entries in the fitness cache (0 to turn it off).
+	private TerminationPolicy termination = null; // When to stop (null for the default generation limit).
+	private boolean verbose = true; // Print population fitnesses and timings during the run.
+	private List<GenerationListener> listeners = new ArrayList<GenerationListener>(); // Receive metrics of the run.
+	private long metricsInterval = 1000; // Least time between two sets of metrics in milliseconds.
+	private Path checkpointFile = null; // File for checkpoints of the run (null to not checkpoint).
+	private int checkpointInterval = 1000; // Generations between checkpoints.
+	private boolean resume = false; // Carry on from the checkpoint file if there is one.
+
+	/**
+	 * Constructor for SolverSettings with the default settings.
+	 */
+	public SolverSettings() {
+
+	}
+
+	/**
+	 * Constructor for SolverSettings with a given population size.
+	 *
+	 * @param populationSize - fixed number of individuals in the population.
+	 */
+	public SolverSettings(int populationSize) {
+		this.populationSize = populationSize;
+	}
+
+	/**
+	 * Copy constructor for SolverSettings.
+	 *
+	 * @param other - settings to be copied.
+	 */
+	public SolverSettings(SolverSettings other) {
+		this.populationSize = other.populationSize;
+		this.seed = other.seed;
+		this.pool = other.pool;
+		this.checkProgress = other.checkProgress;
+		this.islandCount = other.islandCount;
+		this.migrationInterval = other.migrationInterval;
+		this.migrantCount = other.migrantCount;
+		this.topology = other.topology;
+		this.mode = other.mode;
+		this.offspringCount = other.offspringCount;
+		this.cacheSize = other.cacheSize;
+		this.termination = other.termination;
+		this.verbose = other.verbose;
+		this.listeners = new ArrayList<GenerationListener>(other.listeners);
+		this.metricsInterval = other.metricsInterval;
+		this.checkpointFile = other.checkpointFile;
+		this.checkpointInterval = other.checkpointInterval;
+		this.resume = other.resume;
+	}
+
+	/**
+	 * Get the population size.
+	 *
+	 * @return populationSize
+	 */
+	public int getPopulationSize() {
+		return populationSize;
+	}
+
+	/**
+	 * Set the population size (must be greater than 5).
+	 *
+	 * @param populationSize - fixed number of individuals in the population.
+	 */
+	public void setPopulationSize(int populationSize) {
+		this.populationSize = populationSize;
+	}
+
+	/**
+	 * Get the seed for the random number generator.
+	 *
+	 * @return seed, or null if every run uses a different seed.
+	 */
+	public Long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Set the seed for the random number generator. Runs with the same seed and
+	 * problem give the same result whether individuals are evaluated serially or
+	 * in parallel.
+	 *
+	 * @param seed - seed, or null for a different seed every run.
+	 */
+	public void setSeed(Long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Make a new random number generator from the seed.
+	 *
+	 * @return random number generator for one run.
+	 */
+	public Random createRandom() {
+		return seed == null ? new Random() : new Random(seed);
+	}
+
+	/**
+	 * Get the pool used to evaluate individuals.
+	 *
+	 * @return pool, or null if individuals are evaluated serially.
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Set the pool used to evaluate individuals. The pool belongs to the caller,
+	 * who shuts it down once every run using it has finished; the settings and
+	 * their copies only share it.
+	 *
+	 * @param pool - pool, or null to evaluate individuals serially.
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Check whether the run stops once the average fitness stops changing.
+	 *
+	 * @return checkProgress
+	 */
+	public boolean isCheckProgress() {
+		return checkProgress;
+	}
+
+	/**
+	 * Set whether the run stops once the average fitness stops changing (checked
+	 * every 100 generations).
+	 *
+	 * @param checkProgress - whether to check progress.
+	 */
+	public void setCheckProgress(boolean checkProgress) {
+		this.checkProgress = checkProgress;
+	}
+
+	/**
+	 * Get the number of islands.
+	 *
+	 * @return islandCount
+	 */
+	public int getIslandCount() {
+		return islandCount;
+	}
+
+	/**
+	 * Set the number of islands. The population size is shared between the
+	 * islands, each of which runs on its own thread.
+	 *
+	 * @param islandCount - number of islands.
+	 */
+	public void setIslandCount(int islandCount) {
+		this.islandCount = islandCount;
+	}
+
+	/**
+	 * Get the number of generations between migrations.
+	 *
+	 * @return migrationInterval
+	 */
+	public int getMigrationInterval() {
+		return migrationInterval;
+	}
+
+	/**
+	 * Set the number of generations between migrations.
+	 *
+	 * @param migrationInterval - generations between migrations.
+	 */
+	public void setMigrationInterval(int migrationInterval) {
+		this.migrationInterval = migrationInterval;
+	}
+
+	/**
+	 * Get the number of individuals each island sends in one migration.
+	 *
+	 * @return migrantCount
+	 */
+	public int getMigrantCount() {
+		return migrantCount;
+	}
+
+	/**
+	 * Set the number of individuals each island sends in one migration.
+	 *
+	 * @param migrantCount - individuals sent in one migration.
+	 */
+	public void setMigrantCount(int migrantCount) {
+		this.migrantCount = migrantCount;
+	}
+
+	/**
+	 * Get the migration topology.
+	 *
+	 * @return topology
+	 */
+	public MigrationTopology getTopology() {
+		return topology;
+	}
+
+	/**
+	 * Set the migration topology.
+	 *
+	 * @param topology - where islands send migrants.
+	 */
+	public void setTopology(MigrationTopology topology) {
+		this.topology = topology;
+	}
+
+	/**
+	 * Get the breeding mode.
+	 *
+	 * @return mode
+	 */
+	public BreedingMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Set the breeding mode. Generational runs breed the same total number of
+	 * children as a steady-state run (two per steady-state generation), so they
+	 * run for fewer generations.
+	 *
+	 * @param mode - how individuals are replaced.
+	 */
+	public void setMode(BreedingMode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Get the number of children bred in each generation of generational mode.
+	 *
+	 * @return offspringCount
+	 */
+	public int getOffspringCount() {
+		return offspringCount > 0 ? offspringCount : populationSize;
+	}
+
+	/**
+	 * Set the number of children bred in each generation of generational mode.
+	 *
+	 * @param offspringCount - children per generation (0 for the population
+	 *                       size).
+	 */
+	public void setOffspringCount(int offspringCount) {
+		this.offspringCount = offspringCount;
+	}
+
+	/**
+	 * Get the number of entries in the fitness cache.
+	 *
+	 * @return cacheSize
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Set the number of entries in the fitness cache.
+	 *
+	 * @param cacheSize - entries in the cache (0 to turn it off).
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Get the policy deciding when the run stops.
+	 *
+	 * @return termination, or null for the default generation limit.
+	 */
+	public TerminationPolicy getTermination() {
+		return termination;
+	}
+
+	/**
+	 * Set the policy deciding when the run stops, e.g.
+	 * TerminationPolicy.timeLimit(5000).or(TerminationPolicy.stagnation(2000)).
+	 *
+	 * @param termination - policy to stop the run (null for the default
+	 *                    generation limit).
+	 */
+	public void setTermination(TerminationPolicy termination) {
+		this.termination = termination;
+	}
+
+	/**
+	 * Check whether progress is printed during the run.
+	 *
+	 * @return verbose
+	 */
+	public boolean isVerbose() {
+		return verbose;
+	}
+
+	/**
+	 * Set whether progress is printed during the run (by a ConsoleSink on
+	 * standard output).
+	 *
+	 * @param verbose - whether to print population fitnesses and timings.
+	 */
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Get the listeners which receive metrics of the run.
+	 *
+	 * @return listeners (not to be changed).
+	 */
+	public List<GenerationListener> getListeners() {
+		return Collections.unmodifiableList(listeners);
+	}
+
+	/**
+	 * Add a listener to receive metrics of the run (e.g. a ConsoleSink).
+	 *
+	 * @param listener - listener to be added.
+	 */
+	public void addListener(GenerationListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Get the least time between two sets of metrics sent to the listeners.
+	 *
+	 * @return metricsInterval in milliseconds.
+	 */
+	public long getMetricsInterval() {
+		return metricsInterval;
+	}
+
+	/**
+	 * Set the least time between two sets of metrics sent to the listeners.
+	 * Metrics are also sent when the run finishes.
+	 *
+	 * @param metricsInterval - time in milliseconds.
+	 */
+	public void setMetricsInterval(long metricsInterval) {
+		this.metricsInterval = metricsInterval;
+	}
+
+	/**
+	 * Get the file checkpoints of the run are written to.
+	 *
+	 * @return checkpointFile, or null if checkpoints are not written.
+	 */
+	public Path getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	/**
+	 * Set the file checkpoints of the run are written to. In island mode each
+	 * island writes its own checkpoint file, named after this one followed by the
+	 * island number.
+	 *
+	 * @param checkpointFile - checkpoint file (null to not write checkpoints).
+	 */
+	public void setCheckpointFile(Path checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * Get the number of generations between checkpoints.
+	 *
+	 * @return checkpointInterval
+	 */
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Set the number of generations between checkpoints. A checkpoint is also
+	 * written when the run finishes.
+	 *
+	 * @param checkpointInterval - generations between checkpoints (at least 1).
+	 */
+	public void setCheckpointInterval(int checkpointInterval) {
+		if (checkpointInterval < 1) {
+			throw new IllegalArgumentException("Checkpoint interval must be at least 1");
+		}
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Check whether the run carries on from the checkpoint file.
+	 *
+	 * @return resume
+	 */
+	public boolean isResume() {
+		return resume;
+	}
+
+	/**
+	 * Set whether the run carries on from the checkpoint file. A resumed run with
+	 * the same problem and settings gives exactly the same result as a run which
+	 * was never stopped. If there is no checkpoint file yet the run starts from
+	 * the beginning.
+	 *
+	 * @param resume - whether to carry on from the checkpoint file.
+	 */
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+
+}
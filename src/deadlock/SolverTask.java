@@ -0,0 +1,120 @@
+package deadlock;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.scene.chart.XYChart;
+
+/**
+ * Background task running the Genetic Algorithm for the GUI, so the JavaFX
+ * application thread is never blocked by a run. Progress is sent at most once
+ * per metrics interval of the settings: the message and progress of the task
+ * are updated, a point is added to the convergence plot and the best solution
+ * so far is copied so the timetable can be shown before the run finishes.
+ * Cancelling the task stops the run after its current generation.
+ *
+ * @author Shenal
+ *
+ */
+class SolverTask extends Task<Manager> implements GenerationListener {
+
+	private Population population = null; // Population being run.
+	private XYChart.Series<Number, Number> convergence = null; // Best makespan against generation.
+	private long generationLimit; // Generations in a full run (for the progress bar).
+	private volatile Manager bestSolution = null; // Copy of the best solution so far (null until known).
+
+	/**
+	 * Constructor for SolverTask. The task listens to the population, so it must
+	 * not be added to the settings already.
+	 *
+	 * @param problem     - problem to be solved.
+	 * @param settings    - settings for the run (copied).
+	 * @param convergence - series the best makespan of each update is added to.
+	 */
+	SolverTask(Problem problem, SolverSettings settings, XYChart.Series<Number, Number> convergence) {
+		SolverSettings taskSettings = new SolverSettings(settings);
+		taskSettings.addListener(this);
+		this.population = new Population(problem, taskSettings);
+		this.convergence = convergence;
+		this.generationLimit = population.getGenerationLimit();
+	}
+
+	/**
+	 * Run the Genetic Algorithm on the background thread.
+	 *
+	 * @return best solution found.
+	 */
+	@Override
+	protected Manager call() {
+		Manager solution = population.run();
+		bestSolution = solution;
+		return solution;
+	}
+
+	/**
+	 * Stop the run once the task has been cancelled (called on the JavaFX
+	 * application thread).
+	 */
+	@Override
+	protected void cancelled() {
+		population.cancel();
+	}
+
+	/**
+	 * Receive sampled metrics on the thread running the population and pass them
+	 * on to the GUI.
+	 *
+	 * @param metrics - metrics of the run at the end of a generation.
+	 */
+	@Override
+	public void generationFinished(GenerationMetrics metrics) {
+		bestSolution = population.copyBestSolution();
+		showProgress(metrics.getGeneration(), metrics.getBestResult());
+	}
+
+	/**
+	 * Copy the best solution of the initial population, so there is something to
+	 * show before the first metrics arrive.
+	 *
+	 * @param results - fitness of each individual.
+	 */
+	@Override
+	public void populationCreated(int[] results) {
+		bestSolution = population.copyBestSolution();
+	}
+
+	/**
+	 * Show the final progress of the run.
+	 *
+	 * @param results    - fitness of each individual.
+	 * @param statistics - statistics of the whole run.
+	 */
+	@Override
+	public void runFinished(int[] results, RunStatistics statistics) {
+		showProgress(statistics.getGenerations(), statistics.getBestResult());
+	}
+
+	/**
+	 * Update the message, progress and convergence plot of the task. The message
+	 * and progress are merged by JavaFX if they arrive faster than they are
+	 * shown; points are added to the plot on the JavaFX application thread.
+	 *
+	 * @param generation - generations finished.
+	 * @param bestResult - best makespan so far.
+	 */
+	private void showProgress(long generation, int bestResult) {
+		updateMessage("Generation " + generation + "   Best Makespan: " + bestResult);
+		updateProgress(Math.min(generation, generationLimit), generationLimit);
+		Platform.runLater(() -> convergence.getData().add(new XYChart.Data<Number, Number>(generation, bestResult)));
+	}
+
+	/**
+	 * Get the best solution found so far, which may be shown while the run
+	 * carries on.
+	 *
+	 * @return best solution so far (null if the population is not evaluated yet).
+	 */
+	Manager getBestSolution() {
+		return bestSolution;
+	}
+
+}
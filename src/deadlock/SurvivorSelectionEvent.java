@@ -0,0 +1,18 @@
+package deadlock;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for survivor selection in one generation.
+ *
+ * @author Shenal
+ *
+ */
+@Name("deadlock.SurvivorSelection")
+@Label("Survivor Selection")
+@Description("Choosing which parents and children survive into the population")
+class SurvivorSelectionEvent extends SolverEvent {
+
+}
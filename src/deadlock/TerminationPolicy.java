@@ -0,0 +1,104 @@
+package deadlock;
+
+/**
+ * Decides when a run of the Genetic Algorithm should stop, based on the
+ * statistics of the run. It is checked after every generation, so it must be
+ * cheap. Policies hold no state, so one policy can be shared by several
+ * populations (each island checks it against its own statistics).
+ *
+ * @author Shenal
+ *
+ */
+@FunctionalInterface
+public interface TerminationPolicy {
+
+	/**
+	 * Check whether the run should stop.
+	 *
+	 * @param statistics - statistics of the run so far.
+	 * @return true if the run should stop.
+	 */
+	boolean shouldStop(RunStatistics statistics);
+
+	/**
+	 * Combine this policy with another so the run stops when either of them says
+	 * so.
+	 *
+	 * @param other - other policy.
+	 * @return combined policy.
+	 */
+	default TerminationPolicy or(TerminationPolicy other) {
+		return statistics -> shouldStop(statistics) || other.shouldStop(statistics);
+	}
+
+	/**
+	 * Stop once any of several policies says so.
+	 *
+	 * @param policies - policies to be combined.
+	 * @return combined policy.
+	 */
+	static TerminationPolicy anyOf(TerminationPolicy... policies) {
+		TerminationPolicy[] copy = policies.clone();
+		return statistics -> {
+			for (TerminationPolicy policy : copy) {
+				if (policy.shouldStop(statistics)) {
+					return true;
+				}
+			}
+			return false;
+		};
+	}
+
+	/**
+	 * Stop after a number of generations.
+	 *
+	 * @param generations - largest number of generations.
+	 * @return policy
+	 */
+	static TerminationPolicy generations(long generations) {
+		return statistics -> statistics.getGenerations() >= generations;
+	}
+
+	/**
+	 * Stop once a wall clock time budget has been used.
+	 *
+	 * @param millis - time budget in milliseconds.
+	 * @return policy
+	 */
+	static TerminationPolicy timeLimit(long millis) {
+		long nanos = millis * 1000000L;
+		return statistics -> statistics.getElapsedNanos() >= nanos;
+	}
+
+	/**
+	 * Stop once a number of individuals have been evaluated.
+	 *
+	 * @param evaluations - evaluation budget.
+	 * @return policy
+	 */
+	static TerminationPolicy evaluations(long evaluations) {
+		return statistics -> statistics.getEvaluations() >= evaluations;
+	}
+
+	/**
+	 * Stop after a number of generations without any improvement of the best
+	 * fitness.
+	 *
+	 * @param generations - generations allowed without improvement.
+	 * @return policy
+	 */
+	static TerminationPolicy stagnation(long generations) {
+		return statistics -> statistics.getGenerationsWithoutImprovement() >= generations;
+	}
+
+	/**
+	 * Stop as soon as a solution with a target makespan (or better) is found.
+	 *
+	 * @param makespan - target total time.
+	 * @return policy
+	 */
+	static TerminationPolicy targetMakespan(int makespan) {
+		return statistics -> statistics.getBestResult() <= makespan;
+	}
+
+}
@@ -62,6 +62,15 @@ public class Timeslot {
 		return time;
 	}
 	
+	/**
+	 * Check whether this is a Delay Timeslot (waiting time with no Item).
+	 * 
+	 * @return true if this timeslot is a delay.
+	 */
+	public boolean isDelay() {
+		return item == null;
+	}
+	
 	/**
 	 * String representation of a Timeslot.
 	 */
@@ -2,9 +2,6 @@ package deadlock;
 
 import java.util.Random;
 
-import com.sun.javafx.charts.Legend;
-import com.sun.javafx.charts.Legend.LegendItem;
-
 import java.util.List;
 import java.io.BufferedReader;
 import java.io.File;
@@ -12,6 +9,8 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javafx.application.Application;
 import javafx.beans.binding.Bindings;
@@ -23,21 +22,19 @@ import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
 import javafx.scene.Node;
 import javafx.scene.Scene;
-import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.StackedBarChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToolBar;
 import javafx.scene.input.MouseEvent;
-import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.Pane;
-import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
@@ -66,6 +63,16 @@ public class View extends Application {
 	private TextField itemField = null; // Textfield where users specify desired Number of Items.
 	private TextField resourceField = null; // Textfield where users specify desired Number of Resources.
 
+	private static final long PROGRESS_INTERVAL = 200; // Least milliseconds between progress updates of a run.
+
+	// Runs the Genetic Algorithm away from the JavaFX application thread.
+	private ExecutorService solverExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "deadlock-solver");
+		thread.setDaemon(true); // Do not keep the program alive after the window closes.
+		return thread;
+	});
+	private SolverTask solverTask = null; // Latest run of the Genetic Algorithm (null if none started).
+
 	/**
 	 * Start/main method for JavaFX GUI.
 	 */
@@ -86,6 +93,17 @@ public class View extends Application {
 		}
 	}
 
+	/**
+	 * Stop any running Genetic Algorithm when the program closes.
+	 */
+	@Override
+	public void stop() {
+		if (solverTask != null) {
+			solverTask.cancel();
+		}
+		solverExecutor.shutdownNow();
+	}
+
 	/**
 	 * Create new ItemNode in the GUI.
 	 * 
@@ -492,10 +510,13 @@ public class View extends Application {
 			int resourceSize = Integer.parseInt(resourceField.getText());
 			root.getChildren().clear();
 			createToolbar(root);
-			Population p = new Population(populationSize, itemSize, resourceSize);
-
-			items = p.getFinalItems(); // Retrieve modified Items after GA to view timetable.
-			resources = p.getFinalResources(); // Retrieve modified Resources after GA to view timetable.
+			// Generate resource plan for Random Setup GA.
+			Problem problem = Problem.random(itemSize, resourceSize, new Random());
+			SolverSettings settings = new SolverSettings(populationSize);
+			// Check if GA is still effective at making progress or not
+			// if there is a high amount of resources
+			settings.setCheckProgress(problem.getResourceCount() > 40);
+			startSolver(problem, settings);
 		}
 	};
 
@@ -509,25 +530,94 @@ public class View extends Application {
 		public void handle(ActionEvent e) {
 			int populationSize = Integer.parseInt(populationField.getText());
 			convertNodes(); // Get all Items and Resources in GUI to feed them into algorithm.
-			Population p = new Population(populationSize, items, resources);
-			items = p.getFinalItems(); // Retrieve modified Items after GA to view timetable
-			resources = p.getFinalResources(); // Retrieve modified Resources after GA to view timetable
+			startSolver(new Problem(items, resources), new SolverSettings(populationSize));
 		}
 	};
 
 	/**
-	 * Event for showing the Timetable Chart of the final solution found by Genetic
-	 * Algorithm.
+	 * Event for showing the Timetable Chart of the best solution found by Genetic
+	 * Algorithm (so far, if it is still running).
 	 */
 	EventHandler<ActionEvent> showTimetableButtonEventHandler = new EventHandler<ActionEvent>() {
 
 		@Override
 		public void handle(ActionEvent e) {
+			if (solverTask != null && solverTask.getBestSolution() != null) {
+				Manager best = solverTask.getBestSolution();
+				items = best.getItems(); // Items of best solution to view timetable.
+				resources = best.getResources(); // Resources of best solution to view timetable.
+			}
 			root.getChildren().clear();
 			createTimetableChart(root);
 		}
 	};
 
+	/**
+	 * Run the Genetic Algorithm in the background, cancelling any run still going.
+	 * A progress window shows the generation, best makespan and a convergence plot
+	 * of the run, with a button to cancel it.
+	 * 
+	 * @param problem  - problem to be solved.
+	 * @param settings - settings for the run.
+	 */
+	private void startSolver(Problem problem, SolverSettings settings) {
+		if (solverTask != null) {
+			solverTask.cancel();
+		}
+		settings.setMetricsInterval(PROGRESS_INTERVAL);
+
+		// Create convergence plot (best makespan against generation)
+		NumberAxis xAxis = new NumberAxis();
+		xAxis.setLabel("Generation");
+		NumberAxis yAxis = new NumberAxis();
+		yAxis.setLabel("Best Makespan");
+		yAxis.setForceZeroInRange(false);
+		LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
+		chart.setTitle("Convergence");
+		chart.setAnimated(false); // Points arrive too quickly to animate.
+		chart.setCreateSymbols(false);
+		chart.setLegendVisible(false);
+		XYChart.Series<Number, Number> series = new XYChart.Series<>();
+		chart.getData().add(series);
+
+		SolverTask task = new SolverTask(problem, settings, series);
+		solverTask = task;
+
+		// Create progress window
+		Label status = new Label("Starting...");
+		status.setStyle("-fx-font-size: 16;");
+		status.textProperty().bind(task.messageProperty());
+		ProgressBar progressBar = new ProgressBar();
+		progressBar.setPrefWidth(680);
+		progressBar.progressProperty().bind(task.progressProperty());
+		Button cancelButton = new Button("Cancel"); // Stop run, keeping the best solution so far.
+		cancelButton.setOnAction(event -> task.cancel());
+		VBox box = new VBox(10, chart, progressBar, status, cancelButton);
+		box.setStyle("-fx-padding: 10;");
+		Stage progressStage = new Stage();
+		progressStage.setTitle("Solver Progress");
+		progressStage.setScene(new Scene(box, 700, 520));
+		progressStage.setOnCloseRequest(event -> task.cancel()); // Closing the window stops the run.
+
+		task.setOnSucceeded(event -> {
+			status.textProperty().unbind();
+			status.setText(status.getText() + "   Finished");
+			cancelButton.setDisable(true);
+		});
+		task.setOnCancelled(event -> {
+			status.textProperty().unbind();
+			status.setText(status.getText() + "   Cancelled");
+			cancelButton.setDisable(true);
+		});
+		task.setOnFailed(event -> {
+			status.textProperty().unbind();
+			status.setText("ERROR: " + task.getException().getMessage());
+			cancelButton.setDisable(true);
+		});
+		progressStage.show();
+		solverExecutor.submit(task);
+	}
+
 	/**
 	 * Get all nodes and lines (connections between nodes) in the GUI and convert
 	 * them into equivalent Item or Resource objects used for the Genetic Algorithm.
@@ -643,9 +733,10 @@ public class View extends Application {
 	 */
 	public void convertNodes() {
 		int newTime = 10; // Time for every loaded Timeslot
-		// Clear all current Items and Resources
-		items.clear();
-		resources.clear();
+		// Start new lists of Items and Resources (old lists may belong to a running
+		// GA).
+		items = new ArrayList<Item>();
+		resources = new ArrayList<Resource>();
 
 		for (Node c : root.getChildren()) {
 			// Get Item and Resource nodes
@@ -673,133 +764,14 @@ public class View extends Application {
 
 	/**
 	 * Create the Timetable Chart to show the all Resource Schedules for the final
-	 * solution found by the Genetic Algorithm. Timetable Chart is derived from the
-	 * JavaFX StackedBarChart and its properties.
+	 * solution found by the Genetic Algorithm. Timetable Chart is a Gantt chart
+	 * drawn on a Canvas, which stays quick for large problems.
 	 * 
 	 * @param root - Root pane
 	 */
 	private void createTimetableChart(Pane root) {
-
-		// Create X Axis (time)
-		NumberAxis xAxis = new NumberAxis();
-		xAxis.tickLabelFontProperty().set(Font.font(26));
-
-		// Create Y Axis (resources)
-		CategoryAxis yAxis = new CategoryAxis();
-		yAxis.tickLabelFontProperty().set(Font.font(26));
-
-		// Create regular Stacked Bar Chart
-		StackedBarChart<Number, String> stackedBarChart = new StackedBarChart<>(xAxis, yAxis);
-		stackedBarChart.setTitle("Optimised Deadlock Schedule");
-
-		// Set colour properties for each item
-		for (Resource r : resources) {
-			for (Timeslot t : r.getSchedule()) {
-				XYChart.Series<Number, String> series = new XYChart.Series<>();
-				series.getData().add(new XYChart.Data<>(t.getTime(), r.getName()));
-				stackedBarChart.getData().add(series);
-				for (Item i : items) {
-					// Assign unique colors to at most 10 items
-					if (t.getItemName().equals("I1")) { // Item 1
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: red;");
-						break;
-					} else if (t.getItemName().equals("I2")) { // Item 2
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: blue;");
-						break;
-					} else if (t.getItemName().equals("I3")) { // Item 3
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: green;");
-						break;
-					} else if (t.getItemName().equals("I4")) { // Item 4
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: orange;");
-						break;
-					} else if (t.getItemName().equals("I5")) { // Item 5
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: purple;");
-						break;
-					} else if (t.getItemName().equals("I6")) { // Item 6
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: pink;");
-						break;
-					} else if (t.getItemName().equals("I7")) { // Item 7
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: brown;");
-						break;
-					} else if (t.getItemName().equals("I8")) { // Item 8
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: aqua;");
-						break;
-					} else if (t.getItemName().equals("I9")) { // Item 9
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: black;");
-						break;
-					} else if (t.getItemName().equals("I10")) { // Item 10
-						series.getData().get(0).getNode().setStyle("-fx-bar-fill: yellow;");
-						break;
-					} else if (t.getItemName().equals("Delay")) { // Delay
-						series.getData().get(0).getNode().setStyle("visibility: hidden;");
-						break;
-					}
-				}
-			}
-		}
-		stackedBarChart.categoryGapProperty().set(50.0); // Set gap between each Resource Schedule.
-
-		// Modify Chart Legend
-		for (Node n : stackedBarChart.getChildrenUnmodifiable()) {
-			if (n instanceof Legend) {
-				Legend l = (Legend) n;
-				// Remove legend items to match number of Items
-				while (l.getItems().size() > items.size()) { // set 3 to number of timeslots
-					l.getItems().remove(l.getItems().size() - 1);
-				}
-
-				// Alter legend items to accommodate 10 different items.
-				for (Legend.LegendItem li : l.getItems()) {
-					Region re = (Region) li.getSymbol();
-					// Check which item color each respective legend item should be
-					int num = l.getItems().indexOf(li);
-					switch (num) {
-					case 0: // Item 1 = Red Colour
-						re.setBackground(new Background(new BackgroundFill(Color.RED, null, null)));
-						li.setText("I1");
-						break;
-					case 1: // Item 2 = Blue Colour
-						re.setBackground(new Background(new BackgroundFill(Color.BLUE, null, null)));
-						li.setText("I2");
-						break;
-					case 2: // Item 3 = Green Colour
-						re.setBackground(new Background(new BackgroundFill(Color.GREEN, null, null)));
-						li.setText("I3");
-						break;
-					case 3: // Item 4 = Orange Colour
-						re.setBackground(new Background(new BackgroundFill(Color.ORANGE, null, null)));
-						li.setText("I4");
-						break;
-					case 4: // Item 5 = Purple Colour
-						re.setBackground(new Background(new BackgroundFill(Color.PURPLE, null, null)));
-						li.setText("I5");
-						break;
-					case 5: // Item 6 = Pink Colour
-						re.setBackground(new Background(new BackgroundFill(Color.PINK, null, null)));
-						li.setText("I6");
-						break;
-					case 6: // Item 7 = Brown Colour
-						re.setBackground(new Background(new BackgroundFill(Color.BROWN, null, null)));
-						li.setText("I7");
-						break;
-					case 7: // Item 8 = Aqua/Light Blue Colour
-						re.setBackground(new Background(new BackgroundFill(Color.AQUA, null, null)));
-						li.setText("I8");
-						break;
-					case 8: // Item 9 = Black Colour
-						re.setBackground(new Background(new BackgroundFill(Color.BLACK, null, null)));
-						li.setText("I9");
-						break;
-					case 9: // Item 10 = Yellow Colour
-						re.setBackground(new Background(new BackgroundFill(Color.YELLOW, null, null)));
-						li.setText("I10");
-						break;
-					}
-					l.setHgap(10); // Set padding gap between each legend item.
-				}
-			}
-		}
-		stackedBarChart.setPrefSize(1380, 800);
-		root.getChildren().add(stackedBarChart);
+		GanttChart chart = new GanttChart("Optimised Deadlock Schedule", items, resources);
+		chart.setPrefSize(1380, 800);
+		root.getChildren().add(chart);
 	}
 }
@@ -3,7 +3,7 @@ package queens;
 import java.util.*;
 
 /**
- * One instance of a chess board containing n queens placed 
+ * One instance of a chess board containing n queens placed
  * in random positions.
  * @author Shenal Abeyasinghe
  *
@@ -13,23 +13,56 @@ public class Board {
 	private int n; // Board size
 	// Number of position clashes between n-queens on chess board.
 	private int conflictCount = 0;
-	private List<Integer> queens = null; // List of positions for each queen.
+	private int[] queens = null; // Position (1 to n) of the queen in each column.
+	// Number of queens on each upward diagonal (position - column is the same),
+	// null until needed. May be a buffer lent by the population.
+	private int[] upDiagonals = null;
+	// Number of queens on each downward diagonal (position + column is the same),
+	// null until needed. May be a buffer lent by the population.
+	private int[] downDiagonals = null;
 
 	/**
 	 * Constructor for board.
-	 * 
+	 *
 	 * @param n
 	 *            - size of board (nxn) and the number of queens on board.
 	 */
 	public Board(int n) {
+		this(n, new Random());
+	}
+
+	/**
+	 * Constructor for board with queens placed by a given random number
+	 * generator.
+	 *
+	 * @param n
+	 *            - size of board (nxn) and the number of queens on board.
+	 * @param r
+	 *            - random number generator for placing the queens.
+	 */
+	public Board(int n, Random r) {
 		this.n = n;
-		queens = initialiseBoard(n);
+		queens = initialiseBoard(n, r);
 		checkConflicts();
 	}
 
+	/**
+	 * Constructor for board which copies the queens and conflicts of another
+	 * board (e.g. a parent before crossover). The diagonal counters are not
+	 * copied; they are made again when first needed.
+	 *
+	 * @param other
+	 *            - board to be copied.
+	 */
+	public Board(Board other) {
+		this.n = other.n;
+		this.queens = other.queens.clone();
+		this.conflictCount = other.conflictCount;
+	}
+
 	/**
 	 * Get the total number of conflicts on the board.
-	 * 
+	 *
 	 * @return number of conflicts in board configuration.
 	 */
 	public int getConflictCount() {
@@ -39,64 +72,183 @@ public class Board {
 	/**
 	 * Make a new n-queens candidate solution/chess board and initialise the
 	 * positions of n new queens
-	 * 
+	 *
 	 * @param n
+	 *            - size of board (nxn) and the number of queens on board.
+	 * @param r
+	 *            - random number generator for placing the queens.
 	 * @return configuration of queens on board.
 	 */
-	public static List<Integer> initialiseBoard(int n) {
-		Random r = new Random();
-		List<Integer> queenConfiguration = new ArrayList<Integer>();
+	public static int[] initialiseBoard(int n, Random r) {
+		int[] queenConfiguration = new int[n];
 		// Create n queens placed in initial diagonal line configuration.
-		for (int i = 1; i < n + 1; i++) {
-			queenConfiguration.add(i);			
+		for (int i = 0; i < n; i++) {
+			queenConfiguration[i] = i + 1;
 		}
 		// Swap positions of queens to create randomised board configuration.
-		for (int j = 0; j < queenConfiguration.size(); j++) {
-			int randomPosition = r.nextInt(queenConfiguration.size());
-			int temp = queenConfiguration.get(j);
-			queenConfiguration.set(j, queenConfiguration.get(randomPosition));
-			queenConfiguration.set(randomPosition, temp);
+		for (int j = 0; j < n; j++) {
+			int randomPosition = r.nextInt(n);
+			int temp = queenConfiguration[j];
+			queenConfiguration[j] = queenConfiguration[randomPosition];
+			queenConfiguration[randomPosition] = temp;
 		}
 		return queenConfiguration;
 	}
-	
+
 	/**
-	 * Get the list of positions with a queen placed on them.
-	 * 
+	 * Get the position of the queen in each column. The array belongs to the
+	 * board: after changing it, call checkConflicts() to count the conflicts
+	 * again.
+	 *
 	 * @return queens
 	 */
-	public List<Integer> getQueens() {
+	public int[] getQueens() {
 		return queens;
 	}
-	
+
+	/**
+	 * Get the size of the board.
+	 *
+	 * @return n
+	 */
+	public int getSize() {
+		return n;
+	}
+
 	/**
-	 * Count the number of position conflicts between the queens on a board.
+	 * Count the number of position conflicts between the queens on a board (pairs
+	 * of queens on the same diagonal). Queens are counted onto their diagonals one
+	 * column at a time, and each queen clashes with every queen already on its two
+	 * diagonals, so the whole board is checked in O(n).
 	 */
 	public void checkConflicts() {
-		int up = 1;
-		int down = 1;
-		// Browse through the position of queens on the board.
+		if (upDiagonals == null) {
+			upDiagonals = new int[2 * n - 1];
+			downDiagonals = new int[2 * n - 1];
+		} else {
+			Arrays.fill(upDiagonals, 0);
+			Arrays.fill(downDiagonals, 0);
+		}
+		conflictCount = 0;
 		for (int i = 0; i < n; i++) {
-			if (i < (n-1)) { // Deal with last row (nth row) on board.
-				while (up < n && down < n) {
-					// Detect conflicts on upper diagonal positions.
-					if (i + up < n) {
-						if (queens.get(i) + up < (n+1) && queens.get(i) + up == queens.get(i + up)) {
-							conflictCount++;
-						}
-					}
-					// Detect conflicts on lower diagonal positions.
-					if (i + down < n) {
-						if (queens.get(i) - down > -2 && queens.get(i) - down == queens.get(i + down)) {
-							conflictCount++;
-						}
-					}
-					up++;
-					down++;
-				}
-			}			
-			up = 1;
-			down = 1;
+			addQueen(i, queens[i]);
 		}
 	}
+
+	/**
+	 * Count the conflicts using diagonal counter buffers lent by the caller (e.g.
+	 * a population reusing the same buffers for the children of every
+	 * generation) instead of allocating counters for this board. The board keeps
+	 * using the buffers for swapQueens() and moveQueenToEnd() until
+	 * releaseCounters() is called, so no other board may use them until then.
+	 * 
+	 * @param upDiagonals
+	 *            - buffer for the upward diagonals (length 2n - 1).
+	 * @param downDiagonals
+	 *            - buffer for the downward diagonals (length 2n - 1).
+	 */
+	public void checkConflicts(int[] upDiagonals, int[] downDiagonals) {
+		this.upDiagonals = upDiagonals;
+		this.downDiagonals = downDiagonals;
+		checkConflicts();
+	}
+
+	/**
+	 * Drop the diagonal counters (or give back lent buffers) on a board which is
+	 * not going to be changed soon, such as a member of the population. The
+	 * counters take four times the memory of the queens. They are counted again
+	 * if the board is changed by swapQueens() or moveQueenToEnd().
+	 */
+	public void releaseCounters() {
+		upDiagonals = null;
+		downDiagonals = null;
+	}
+
+	/**
+	 * Swap the queens in two columns, updating the number of conflicts from the
+	 * four diagonals the queens leave and the four they join instead of checking
+	 * the whole board (O(1)). The conflicts must be up to date before the swap.
+	 *
+	 * @param first
+	 *            - index of one column.
+	 * @param second
+	 *            - index of the other column.
+	 */
+	public void swapQueens(int first, int second) {
+		if (first == second) {
+			return;
+		}
+		if (upDiagonals == null) {
+			checkConflicts();
+		}
+		int firstPosition = queens[first];
+		int secondPosition = queens[second];
+		removeQueen(first, firstPosition);
+		removeQueen(second, secondPosition);
+		queens[first] = secondPosition;
+		queens[second] = firstPosition;
+		addQueen(first, secondPosition);
+		addQueen(second, firstPosition);
+	}
+
+	/**
+	 * Move the queen in one column to the last column, shifting the queens after
+	 * it one column back. Only the diagonals of the k queens which move are
+	 * updated (O(k)). The conflicts must be up to date before the move.
+	 *
+	 * @param column
+	 *            - index of column the queen is moved from.
+	 */
+	public void moveQueenToEnd(int column) {
+		if (upDiagonals == null) {
+			checkConflicts();
+		}
+		for (int i = column; i < n; i++) {
+			removeQueen(i, queens[i]);
+		}
+		int moved = queens[column];
+		System.arraycopy(queens, column + 1, queens, column, n - column - 1);
+		queens[n - 1] = moved;
+		for (int i = column; i < n; i++) {
+			addQueen(i, queens[i]);
+		}
+	}
+
+	/**
+	 * Take a queen off its diagonals, removing its conflicts with the queens left
+	 * on them.
+	 *
+	 * @param column
+	 *            - index of column of the queen.
+	 * @param position
+	 *            - position of the queen in the column.
+	 */
+	private void removeQueen(int column, int position) {
+		conflictCount -= --upDiagonals[position - column + n - 2];
+		conflictCount -= --downDiagonals[position + column - 1];
+	}
+
+	/**
+	 * Put a queen on its diagonals, adding its conflicts with the queens already
+	 * on them.
+	 *
+	 * @param column
+	 *            - index of column of the queen.
+	 * @param position
+	 *            - position of the queen in the column.
+	 */
+	private void addQueen(int column, int position) {
+		conflictCount += upDiagonals[position - column + n - 2]++;
+		conflictCount += downDiagonals[position + column - 1]++;
+	}
+
+	/**
+	 * Get the positions of the queens as text, e.g. "[2, 4, 1, 3]".
+	 *
+	 * @return queens
+	 */
+	@Override
+	public String toString() {
+		return Arrays.toString(queens);
+	}
 }
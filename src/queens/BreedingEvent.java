@@ -0,0 +1,18 @@
+package queens;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for breeding children.
+ * 
+ * @author Shenal Abeyasinghe
+ *
+ */
+@Name("queens.Breeding")
+@Label("Breeding")
+@Description("Parent selection and crossover (with repair), or mutation of the children")
+class BreedingEvent extends SolverEvent {
+
+}
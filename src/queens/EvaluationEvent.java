@@ -0,0 +1,21 @@
+package queens;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for counting the conflicts on a group of boards.
+ * 
+ * @author Shenal Abeyasinghe
+ *
+ */
+@Name("queens.Evaluation")
+@Label("Evaluation")
+@Description("Conflict counting for a group of boards")
+class EvaluationEvent extends SolverEvent {
+
+	@Label("Boards")
+	int boards; // Number of boards checked.
+
+}
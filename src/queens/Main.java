@@ -11,25 +11,36 @@ public class Main {
 	private Population population = null; // Genetic Algorithm Population.
 
 	public static void main(String[] args) {
-		// Record start time of running algorithm + printing results.
-		final long startTime = System.currentTimeMillis();
-		
 		// Board Size = 8, Population Size = 10
-		Population p = new Population(8, 10, startTime);
-//		Population p = new Population(10, 100, startTime);
-//		Population p = new Population(10, 100, startTime);
+		Population p = new Population(8, 10);
+//		Population p = new Population(10, 100);
+//		Population p = new Population(10, 100);
+		
+//		ModifiedPopulation p2 = new ModifiedPopulation(8, 10);
+//		ModifiedPopulation p2 = new ModifiedPopulation(10, 100);
+//		ModifiedPopulation p2 = new ModifiedPopulation(100, 200);
+		
+		// One population on each core, the first solution cancels the others.
+//		ParallelSolver p3 = new ParallelSolver(100, 200, true);
 		
-//		ModifiedPopulation p2 = new ModifiedPopulation(8, 10, startTime);
-//		ModifiedPopulation p2 = new ModifiedPopulation(10, 100, startTime);
-//		ModifiedPopulation p2 = new ModifiedPopulation(100, 200, startTime);
+		SolverResult result = p.run(); // Run Genetic Algorithm.
+//		SolverResult result = p2.run(); // Run Genetic Algorithm.
+//		SolverResult result = p3.run(); // Run Genetic Algorithm.
 		
-		p.printFinalResult(); // Display final population.
-//		p2.printFinalResult(); // Display final population.
+		if (result.isSolved()) {
+			System.out.println("Solution Found!");
+			System.out.println("Board: " + result.getSolution() + "\t" + "Number of Conflicts: "
+					+ result.getSolution().getConflictCount());
+		} else {
+			p.printFinalResult(); // Display final population.
+//			p2.printFinalResult(); // Display final population.
+		}
+		System.out.println("Generations: " + result.getGenerations() + "\t" + "Evaluations: "
+				+ result.getEvaluations());
 		
-		// Record end time of running algorithm + printing results.
-		final long endTime = System.currentTimeMillis();
-		System.out.println("Total execution time: " + ((endTime - startTime) / 1000) + " seconds\t"
-				+ (endTime - startTime) + " ms");
+		// Execution time of running algorithm.
+		final long elapsedMillis = result.getElapsedNanos() / 1000000;
+		System.out.println("Total execution time: " + (elapsedMillis / 1000) + " seconds\t" + elapsedMillis + " ms");
 	}
 
 }
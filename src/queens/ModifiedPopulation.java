@@ -9,35 +9,70 @@ import java.util.*;
  * @author Shenal Abeyasinghe
  *
  */
-public class ModifiedPopulation {
+public class ModifiedPopulation implements Solver {
 
 	private int n; // Board size
 	private int populationSize; // Population Size
 	private List<Board> boards = null; // Individuals in population
 	private List<Board> children = null; // Offspring from crossover parents.
-	private long startTime; // Starting time when the program runs.
+	private int generationLimit = 10000; // Largest number of generations in one run.
+	private volatile boolean cancelled = false; // Whether the run has been asked to stop early.
+	private Board solution = null; // First board found with no conflicts (null until found).
+	private int generations = 0; // Number of generations run.
+	private long evaluations = 0; // Number of boards whose conflicts were counted.
+	private int generation = 0; // Generation being run (for flight recorder events).
+	private boolean recordEvents = true; // Whether flight recorder events are created in this generation.
+	private Random r = new Random(); // Random number generator for every GA operator.
+	private BitSet seen = null; // Positions already taken, reused by every crossover and repair.
+	private int[] missing = null; // Positions with no queen, reused by every repair.
+	private int[][] upDiagonals = null; // Upward diagonal counters lent to each child in turn.
+	private int[][] downDiagonals = null; // Downward diagonal counters lent to each child in turn.
+	private Board[] tournament = new Board[4]; // Parents and children in survivor selection.
+	private Board[] candidates = new Board[5]; // Possible parents, reused by every selection.
+	private List<Board> parents = null; // Parents chosen by the last selection.
+	private int[] indexes = new int[5]; // Indexes of possible parents, reused by every selection.
 
 	/**
-	 * Constructor for Population.
+	 * Constructor for Population. The Genetic Algorithm is not started until
+	 * run() is called.
 	 * 
 	 * @param n
 	 *            - size of board (nxn) and the number of queens on board.
 	 * @param p
 	 *            - size of population for Genetic Algorithm.
 	 */
-	public ModifiedPopulation(int n, int p, long startTime) {
+	public ModifiedPopulation(int n, int p) {
 		this.n = n;
 		this.populationSize = p;
-		this.startTime = startTime;
-		boards = new ArrayList<Board>(n);
+		boards = new ArrayList<Board>(p);
+		children = new ArrayList<Board>(2);
+		parents = new ArrayList<Board>(2);
+		seen = new BitSet(n + 1);
+		missing = new int[n];
+		upDiagonals = new int[2][2 * n - 1];
+		downDiagonals = new int[2][2 * n - 1];
+	}
+
+	/**
+	 * Run the Genetic Algorithm until a board with no conflicts is found, the
+	 * generation limit is reached or the run is cancelled. A population can only
+	 * be run once.
+	 * 
+	 * @return result of the run, with the solution or else the best board found.
+	 */
+	@Override
+	public SolverResult run() {
+		long startTime = System.nanoTime();
 		initialisePopulation();
 		recheckConflicts();
-		Random r = new Random();
 		Board parent1 = null; // First crossover parent.
 		Board parent2 = null; // Second crossover parent.
-		
-		// Run algorithm for 10000 cycles.
-		for (int i = 0; i < 10000; i++) {		
+		// Run algorithm for up to 10000 cycles (by default).
+		while (solution == null && generations < generationLimit && !(cancelled)) {
+			 generation = generations;
+			 recordEvents = generations % SolverEvent.SAMPLE_INTERVAL == 0;
+			 generations++;
+			 BreedingEvent breeding = recordEvents ? begin(new BreedingEvent()) : null;
 			 // Modified Genetic Algorithm Implementation
 			 float mutationPercentage = r.nextFloat(); // Mutation % = 80%
 			 // Best 2 out of random 5 individuals to be parents.
@@ -45,13 +80,114 @@ public class ModifiedPopulation {
 			 parent1 = parents.get(0);
 			 parent2 = parents.get(1);
 			 children = performCrossover(parent1, parent2);
+			 commit(breeding);
 			 recheckConflicts(children);
+			 if (solution != null) {
+				 break; // Finish GA
+			 }
 			 if (mutationPercentage < 0.8) { // 80% chance of doing mutation.
+				 BreedingEvent mutation = recordEvents ? begin(new BreedingEvent()) : null;
 				 performMutation(children.get(0));
 				 performMutation(children.get(1));
+				 commit(mutation);
+				 checkSolutions(children); // Mutation keeps the conflicts up to date.
+				 if (solution != null) {
+					 break; // Finish GA
+				 }
 			 }
-			 recheckConflicts(children);
+			 SurvivorSelectionEvent selection = recordEvents ? begin(new SurvivorSelectionEvent()) : null;
 			 performTournamentSelection(parent1, parent2);
+			 commit(selection);
+		}
+		Board best = solution != null ? solution : getBestBoard();
+		return new SolverResult(best, generations, evaluations, System.nanoTime() - startTime, cancelled);
+	}
+
+	/**
+	 * Set the largest number of generations in one run.
+	 * 
+	 * @param generationLimit
+	 *            - largest number of generations (10000 by default).
+	 */
+	public void setGenerationLimit(int generationLimit) {
+		this.generationLimit = generationLimit;
+	}
+
+	/**
+	 * Set the seed of the random number generator, so a run can be repeated or
+	 * populations run side by side follow different streams. Must be called
+	 * before run().
+	 * 
+	 * @param seed
+	 *            - seed for the random number generator.
+	 */
+	public void setSeed(long seed) {
+		r = new Random(seed);
+	}
+
+	/**
+	 * Ask the run to stop after the current generation. Can be called from any
+	 * thread.
+	 */
+	@Override
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Check whether the run has been asked to stop early.
+	 * 
+	 * @return true if cancel() has been called.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Get the board with the fewest conflicts in the population.
+	 * 
+	 * @return best board.
+	 */
+	public Board getBestBoard() {
+		Board best = boards.get(0);
+		for (Board b : boards) {
+			if (b.getConflictCount() < best.getConflictCount()) {
+				best = b;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Begin a flight recorder event.
+	 * 
+	 * @param event
+	 *            - new event.
+	 * @return event
+	 */
+	private static <E extends SolverEvent> E begin(E event) {
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Commit a flight recorder event if a recording wants it, filling in the
+	 * board and population size. The event ends now.
+	 * 
+	 * @param event
+	 *            - event which has begun (null if this generation is not
+	 *            recorded).
+	 */
+	private void commit(SolverEvent event) {
+		if (event == null) {
+			return;
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.n = n;
+			event.populationSize = populationSize;
+			event.generation = generation;
+			event.commit();
 		}
 	}
 
@@ -61,7 +197,7 @@ public class ModifiedPopulation {
 	 */
 	public void initialisePopulation() {
 		for (int i = 0; i < populationSize; i++) {
-			Board newBoard = new Board(n);
+			Board newBoard = new Board(n, r);
 			boards.add(newBoard);
 		}
 	}
@@ -70,38 +206,76 @@ public class ModifiedPopulation {
 	 * Check the fitness of all individuals in population.
 	 */
 	public void recheckConflicts() {
+		EvaluationEvent event = recordEvents ? begin(new EvaluationEvent()) : null;
 		for (Board b : boards) {
-			b.checkConflicts();
+			b.checkConflicts(upDiagonals[0], downDiagonals[0]);
+			evaluations++;
 			if (b.getConflictCount() == 0) {
-				System.out.println("Solution Found!");
-				System.out.println("Board: " + b.getQueens().toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
-				final long endTime = System.currentTimeMillis();
-				System.out.println("Total execution time: " + ((endTime - startTime) / 1000) + " seconds\t"
-						+ (endTime - startTime) + " ms");
-				System.exit(0);
+				solutionFound(b);
 			}
+			b.releaseCounters(); // Members of the population are not changed in place.
 		}
+		if (event != null) {
+			event.boards = boards.size();
+		}
+		commit(event);
 	}
 	
 	/**
-	 * Check the fitness of children after the crossover/mutation operators.
+	 * Check the fitness of children after the crossover/mutation operators. Each
+	 * child is counted on a pair of diagonal counters kept by the population,
+	 * which it keeps for mutation until it joins the population.
 	 * @param boardsList - list of children.
 	 */
 	public void recheckConflicts(List<Board> boardsList) {
-		for (Board b : boardsList) {
-			b.checkConflicts();
+		EvaluationEvent event = recordEvents ? begin(new EvaluationEvent()) : null;
+		for (int i = 0; i < boardsList.size(); i++) {
+			Board b = boardsList.get(i);
+			if (i < upDiagonals.length) {
+				b.checkConflicts(upDiagonals[i], downDiagonals[i]);
+			} else {
+				b.checkConflicts();
+			}
+			evaluations++;
 			// End algorithm if a solution with 0 conflicts appears.
-			if (b.getConflictCount() == 0) { 
-				System.out.println("Solution Found!");
-				System.out.println("Board: " + b.getQueens().toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
-				final long endTime = System.currentTimeMillis();
-				System.out.println("Total execution time: " + ((endTime - startTime) / 1000) + " seconds\t"
-						+ (endTime - startTime) + " ms");
-				System.exit(0); // Terminate program
+			if (b.getConflictCount() == 0) {
+				solutionFound(b);
+			}
+		}
+		if (event != null) {
+			event.boards = boardsList.size();
+		}
+		commit(event);
+	}
+
+	/**
+	 * Check whether any board whose conflicts are already up to date (e.g. after
+	 * mutation) is a solution.
+	 * 
+	 * @param boardsList
+	 *            - list of boards.
+	 */
+	public void checkSolutions(List<Board> boardsList) {
+		for (Board b : boardsList) {
+			if (b.getConflictCount() == 0) {
+				solutionFound(b);
 			}
 		}
 	}
 
+	/**
+	 * Record a board with no conflicts as the solution, which ends the run.
+	 * 
+	 * @param b
+	 *            - board with no conflicts.
+	 */
+	private void solutionFound(Board b) {
+		if (solution == null) {
+			solution = b;
+			b.releaseCounters(); // Solution must not hold counters of this population.
+		}
+	}
+
 	/**
 	 * Selects two individuals from the population to be parents for the
 	 * crossover operation. Parents are picked by first choosing 5 random
@@ -109,35 +283,44 @@ public class ModifiedPopulation {
 	 * out of the 5 individuals.
 	 * 
 	 * @return one list of two individuals chosen to be a parent by the 2 out of
-	 *         5 selection criteria.
+	 *         5 selection criteria (reused by the next selection).
 	 */
 	public List<Board> selectParents() {
-		Random r = new Random();
-		List<Board> possibleParents = new ArrayList<Board>(); // 5 individuals.
-		List<Board> parents = new ArrayList<Board>(); // 2 parents.
-		List<Integer> indexes = new ArrayList<Integer>();
 		int i = 0;
 		while (i < 5) { // Get 5 individuals
 			int parentIndex = r.nextInt(populationSize);
 			// Add unique individuals to be potential parents.
-			if (!(indexes.contains(parentIndex))) {
+			if (!(isPicked(parentIndex, i))) {
 				// Ensure individual is not picked again.
-				indexes.add(parentIndex); 
-				possibleParents.add(boards.get(parentIndex));
+				indexes[i] = parentIndex;
+				candidates[i] = boards.get(parentIndex);
 				i++;
 			}
 		}
-		for (int j = 0; j < 2; j++) { // Pick 2 individuals to be parents.
-			Board minBoard = possibleParents.get(0); // Remove best solution.
-			for (int k = 0; k < possibleParents.size(); k++) {
-				if (minBoard.getConflictCount() > possibleParents.get(k).getConflictCount()) {
-					minBoard = possibleParents.get(k); 
-				}
+		Population.selectBest(candidates, 2); // Pick 2 individuals to be parents.
+		parents.clear();
+		parents.add(candidates[0]); // Add fittest 2 out of 5 individuals.
+		parents.add(candidates[1]);
+		Arrays.fill(candidates, null);
+		return parents;
+	}
+
+	/**
+	 * Check whether an individual has already been picked as a possible parent.
+	 * 
+	 * @param index
+	 *            - index of individual.
+	 * @param picked
+	 *            - number of individuals picked so far.
+	 * @return true if the individual has been picked.
+	 */
+	private boolean isPicked(int index, int picked) {
+		for (int j = 0; j < picked; j++) {
+			if (indexes[j] == index) {
+				return true;
 			}
-			parents.add(minBoard); // Add fittest 2 out of 5 individuals.
-			possibleParents.remove(minBoard);
 		}
-		return parents;
+		return false;
 	}
 
 	/**
@@ -149,13 +332,10 @@ public class ModifiedPopulation {
 	 */
 	public void performMutation(Board board) {
 		// Swap Mutation
-		Random r = new Random();
 		int startPoint = r.nextInt(n) + 1;
 		int endPoint = r.nextInt(n) + 1;
-		int temp = board.getQueens().get(startPoint - 1);
-		// Swap the first and second queens.
-		board.getQueens().set(startPoint - 1, board.getQueens().get(endPoint - 1));
-		board.getQueens().set(endPoint - 1, temp);
+		// Swap the first and second queens, updating the conflicts as they move.
+		board.swapQueens(startPoint - 1, endPoint - 1);
 	}
 
 	/**
@@ -170,41 +350,48 @@ public class ModifiedPopulation {
 	 */
 	public List<Board> performCrossover(Board parent1, Board parent2) {
 		// Cut and Crossfill Crossover (Single Point Crossover)
-		Random r = new Random();
 		int crossoverPoint = r.nextInt(n) + 1;
-		// Divide both parents into two segments each.
-		List<Integer> parent1List1 = parent1.getQueens().subList(0, crossoverPoint);
-		List<Integer> parent1List2 = parent1.getQueens().subList(crossoverPoint, n);
-		List<Integer> parent2List1 = parent2.getQueens().subList(0, crossoverPoint);
-		List<Integer> parent2List2 = parent2.getQueens().subList(crossoverPoint, n);
-		Board child1 = new Board(n);
-		Board child2 = new Board(n);
+		// Copy the first segment of each parent into its child, then fill in the rest
+		// of the child in the order of the other parent.
+		Board child1 = crossfill(parent1, parent2, crossoverPoint);
+		Board child2 = crossfill(parent2, parent1, crossoverPoint);
+		children.clear();
+		children.add(child1);
+		children.add(child2);
+		return children; // Children compete with their parents in survivor selection.
+	}
 
-		// Crossover for first segments of each child.
+	/**
+	 * Make one child by cut-and-crossfill in O(n): the queens before the
+	 * crossover point come from the first parent, and the positions still free
+	 * follow in the order they appear in the second parent. The child is a
+	 * permutation, so it never needs repairing.
+	 * 
+	 * @param first
+	 *            - parent giving the first segment.
+	 * @param second
+	 *            - parent giving the order of the rest.
+	 * @param crossoverPoint
+	 *            - number of queens taken from the first parent.
+	 * @return child (conflicts not yet counted).
+	 */
+	private Board crossfill(Board first, Board second, int crossoverPoint) {
+		Board child = new Board(first);
+		int[] queens = child.getQueens();
+		int[] order = second.getQueens();
+		seen.clear();
 		for (int i = 0; i < crossoverPoint; i++) {
-			child1.getQueens().set(i, parent1List1.get(i));
-			child2.getQueens().set(i, parent2List1.get(i));
+			seen.set(queens[i]);
 		}
-		int count1 = crossoverPoint; // Keep track of second segment of child 1.
-		int count2 = crossoverPoint; // Keep track of second segment of child 2.
-		
-		// Crossover for second segments of each child.
-		for (int j = 0; j < n; j++) {
-			if (!(child1.getQueens().contains(parent2.getQueens().get(j)))) {
-				child1.getQueens().set(count1, parent2.getQueens().get(j));
-				count1++;
-			}
-			if (!(child2.getQueens().contains(parent1.getQueens().get(j)))) {
-				child2.getQueens().set(count2, parent1.getQueens().get(j));
-				count2++;
+		int count = crossoverPoint; // Keep track of second segment of child.
+		for (int j = 0; j < n && count < n; j++) {
+			if (!(seen.get(order[j]))) {
+				queens[count] = order[j];
+				seen.set(order[j]);
+				count++;
 			}
 		}
-		List<Board> newChildren = boards;
-		child1 = performRepairFunction(child1); // Remove duplicates in child 1.
-		child2 = performRepairFunction(child2); // Remove duplicates in child 2.
-		newChildren.add(child1);
-		newChildren.add(child2);
-		return newChildren; // Feed new children back into population.
+		return child;
 	}
 	
 	/**
@@ -216,22 +403,7 @@ public class ModifiedPopulation {
 	 * @return child from population which has been repaired.
 	 */
 	public Board performRepairFunction(Board child) {
-		List<Integer> replacementList = new ArrayList<Integer>();
-		for (int i = 1; i < n + 1; i++) {
-			if (!(child.getQueens().contains(i))) {
-				// Find positions which are not occupied by a queen.
-				replacementList.add(i);
-			}
-		}
-		int index = 0; // Traverse through unoccupied positions.
-		Set<Integer> queenSet = new HashSet<Integer>();
-		for (int j = 0; j < n; j++) {
-			// Replace duplicate positions with unoccupied positions.
-			if (queenSet.add(child.getQueens().get(j)) == false) {
-				child.getQueens().set(j, replacementList.get(index));
-				index++;
-			}
-		}
+		Population.repair(child.getQueens(), n, seen, missing);
 		return child;
 	}
 
@@ -258,33 +430,22 @@ public class ModifiedPopulation {
 //		// Remove parents from population and add two tournament winners later
 		boards.remove(parent1);
 		boards.remove(parent2);	
-		List<Board> tournamentParticipants = new ArrayList<Board>();
-		List<Board> winners = new ArrayList<Board>();
-		Board winner = null;
 		
 		// Put both parents and children in tournament
-		tournamentParticipants.add(parent1);
-		tournamentParticipants.add(parent2);
-		tournamentParticipants.add(children.get(0));
-		tournamentParticipants.add(children.get(1));
+		tournament[0] = parent1;
+		tournament[1] = parent2;
+		tournament[2] = children.get(0);
+		tournament[3] = children.get(1);
 		
 		// Get two best solutions out of both parents and children (2 out of 4)
-		for (int i = 0; i < 2; i++) { 
-			winner = tournamentParticipants.get(0);
-			for (int j = 0; j < tournamentParticipants.size(); j++) {
-				if (winner.getConflictCount() > tournamentParticipants.get(j).getConflictCount()) {
-					winner = tournamentParticipants.get(j);
-				}
-			}	
-			winners.add(winner);
-			tournamentParticipants.remove(winner);
-			
-		}
+		Population.selectBest(tournament, 2);
 		
 		// Add winners back into population
 		for (int k = 0; k < 2; k++) {
-			boards.add(winners.get(k));
+			tournament[k].releaseCounters(); // Members of the population are not changed in place.
+			boards.add(tournament[k]);
 		}
+		Arrays.fill(tournament, null);
 	}
 
 	/**
@@ -304,10 +465,10 @@ public class ModifiedPopulation {
 	 */
 	public void printFinalResult() {
 		for (Board b : boards) {
-//			 System.out.println("Board: " + b.getQueens().toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
+//			 System.out.println("Board: " + b.toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
 			if (b.getConflictCount() == 0) {
 				System.out.println(
-						"Board: " + b.getQueens().toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
+						"Board: " + b.toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
 			}
 		}
 	}
@@ -0,0 +1,187 @@
+package queens;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs several independent populations of the n-queens Genetic Algorithm at
+ * once, one on each thread, each with its own random number stream. The first
+ * population to find a board with no conflicts cancels the others, so the time
+ * to a solution depends on the luckiest of several seeds instead of one.
+ *
+ * @author Shenal Abeyasinghe
+ *
+ */
+public class ParallelSolver implements Solver {
+
+	private int n; // Board size
+	private int populationSize; // Size of each population.
+	private boolean modified; // Whether ModifiedPopulation is run instead of Population.
+	private int threads = Runtime.getRuntime().availableProcessors(); // Populations run at once.
+	private int generationLimit = 10000; // Largest number of generations in the run of each population.
+	private Long seed = null; // Seed for the population seeds (null for a random seed).
+	private List<Solver> solvers = new ArrayList<Solver>(); // Populations being run.
+	private volatile boolean cancelled = false; // Whether the run has been asked to stop early.
+
+	/**
+	 * Constructor for ParallelSolver. The populations are not made until run()
+	 * is called.
+	 *
+	 * @param n
+	 *            - size of board (nxn) and the number of queens on board.
+	 * @param p
+	 *            - size of each population.
+	 * @param modified
+	 *            - true to run ModifiedPopulation, false to run Population.
+	 */
+	public ParallelSolver(int n, int p, boolean modified) {
+		this.n = n;
+		this.populationSize = p;
+		this.modified = modified;
+	}
+
+	/**
+	 * Set the number of populations run at once (the number of cores by
+	 * default).
+	 *
+	 * @param threads
+	 *            - number of populations.
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Threads must be at least 1");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Set the largest number of generations in the run of each population.
+	 *
+	 * @param generationLimit
+	 *            - largest number of generations (10000 by default).
+	 */
+	public void setGenerationLimit(int generationLimit) {
+		this.generationLimit = generationLimit;
+	}
+
+	/**
+	 * Set the seed which the seed of each population is drawn from, so a run
+	 * starts the same populations again (which one finishes first still depends
+	 * on the threads).
+	 *
+	 * @param seed
+	 *            - seed for the population seeds.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Run the populations until one of them finds a board with no conflicts,
+	 * they have all reached the generation limit or the run is cancelled. The
+	 * result has the solution and generations of the population which found it
+	 * (or else the best board of any population), the evaluations of every
+	 * population and the time until the last population stopped.
+	 *
+	 * @return result of the run.
+	 */
+	@Override
+	public SolverResult run() {
+		long startTime = System.nanoTime();
+		Random seeds = seed != null ? new Random(seed) : new Random();
+		synchronized (solvers) {
+			for (int i = 0; i < threads; i++) {
+				solvers.add(createPopulation(seeds.nextLong()));
+			}
+			if (cancelled) {
+				solvers.forEach(Solver::cancel); // Cancelled before the populations were made.
+			}
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CompletionService<SolverResult> completed = new ExecutorCompletionService<SolverResult>(executor);
+			for (Solver solver : solvers) {
+				completed.submit(solver::run);
+			}
+			SolverResult best = null; // Solution, or else the result with the fewest conflicts.
+			long evaluations = 0;
+			for (int i = 0; i < solvers.size(); i++) {
+				SolverResult result = completed.take().get();
+				evaluations += result.getEvaluations();
+				if (result.isSolved() && (best == null || !(best.isSolved()))) {
+					best = result;
+					cancelPopulations(); // First solution wins; the rest stop after their current generation.
+				} else if (best == null || (!(best.isSolved()) && result.getSolution().getConflictCount() < best
+						.getSolution().getConflictCount())) {
+					best = result;
+				}
+			}
+			return new SolverResult(best.getSolution(), best.getGenerations(), evaluations,
+					System.nanoTime() - startTime, cancelled);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancelPopulations();
+			throw new IllegalStateException("Parallel run interrupted", e);
+		} catch (ExecutionException e) {
+			cancelPopulations();
+			throw new IllegalStateException("Population failed", e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Ask every population to stop after its current generation. Can be called
+	 * from any thread.
+	 */
+	@Override
+	public void cancel() {
+		cancelled = true;
+		cancelPopulations();
+	}
+
+	/**
+	 * Check whether the run has been asked to stop early.
+	 *
+	 * @return true if cancel() has been called.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Make one population with its own seed.
+	 *
+	 * @param populationSeed
+	 *            - seed for the random number generator of the population.
+	 * @return population
+	 */
+	private Solver createPopulation(long populationSeed) {
+		if (modified) {
+			ModifiedPopulation population = new ModifiedPopulation(n, populationSize);
+			population.setGenerationLimit(generationLimit);
+			population.setSeed(populationSeed);
+			return population;
+		}
+		Population population = new Population(n, populationSize);
+		population.setGenerationLimit(generationLimit);
+		population.setSeed(populationSeed);
+		return population;
+	}
+
+	/**
+	 * Cancel every population made so far.
+	 */
+	private void cancelPopulations() {
+		synchronized (solvers) {
+			solvers.forEach(Solver::cancel);
+		}
+	}
+
+}
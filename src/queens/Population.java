@@ -9,34 +9,68 @@ import java.util.*;
  * @author Shenal Abeyasinghe
  *
  */
-public class Population {
+public class Population implements Solver {
 
 	private int n; // Board size
 	private int populationSize; // Population Size
 	private List<Board> boards = null; // Individuals in population
 	private List<Board> children = null; // Offspring from crossover parents.
-	private long startTime; // Starting time when the program runs.
+	private int generationLimit = 10000; // Largest number of generations in one run.
+	private volatile boolean cancelled = false; // Whether the run has been asked to stop early.
+	private Board solution = null; // First board found with no conflicts (null until found).
+	private int generations = 0; // Number of generations run.
+	private long evaluations = 0; // Number of boards whose conflicts were counted.
+	private int generation = 0; // Generation being run (for flight recorder events).
+	private boolean recordEvents = true; // Whether flight recorder events are created in this generation.
+	private Random r = new Random(); // Random number generator for every GA operator.
+	private BitSet seen = null; // Positions already taken, reused by every repair.
+	private int[] missing = null; // Positions with no queen, reused by every repair.
+	private int[][] upDiagonals = null; // Upward diagonal counters lent to each child in turn.
+	private int[][] downDiagonals = null; // Downward diagonal counters lent to each child in turn.
+	private Board[] tournament = new Board[4]; // Parents and children in survivor selection.
+	private float[] relFitness = null; // Relative fitness of each individual, reused by every selection.
 
 	/**
-	 * Constructor for Population.
+	 * Constructor for Population. The Genetic Algorithm is not started until
+	 * run() is called.
 	 * 
 	 * @param n
 	 *            - size of board (nxn) and the number of queens on board.
 	 * @param p
 	 *            - size of population for Genetic Algorithm.
 	 */
-	public Population(int n, int p, long startTime) {
+	public Population(int n, int p) {
 		this.n = n;
 		this.populationSize = p;
-		this.startTime = startTime;
-		boards = new ArrayList<Board>(n);
+		boards = new ArrayList<Board>(p);
+		children = new ArrayList<Board>(2);
+		seen = new BitSet(n + 1);
+		missing = new int[n];
+		upDiagonals = new int[2][2 * n - 1];
+		downDiagonals = new int[2][2 * n - 1];
+		relFitness = new float[p];
+	}
+
+	/**
+	 * Run the Genetic Algorithm until a board with no conflicts is found, the
+	 * generation limit is reached or the run is cancelled. A population can only
+	 * be run once.
+	 * 
+	 * @return result of the run, with the solution or else the best board found.
+	 */
+	@Override
+	public SolverResult run() {
+		long startTime = System.nanoTime();
 		initialisePopulation();
 		recheckConflicts();
-		Random r = new Random();
 		Board parent1 = null; // First crossover parent.
-		Board parent2 = null; // Second crossover parent.		
-		// Run algorithm for 10000 cycles.
-		for (int i = 0; i < 10000; i++) {			
+		Board parent2 = null; // Second crossover parent.
+		// Run algorithm for up to 10000 cycles (by default).
+		while (solution == null && generations < generationLimit && !(cancelled)) {
+			generation = generations;
+			recordEvents = generations % SolverEvent.SAMPLE_INTERVAL == 0;
+			generations++;
+			BreedingEvent breeding = recordEvents ? begin(new BreedingEvent()) : null;
 			// "Original" Genetic Algorithm Implementation
 			// Crossover Fraction = 0.8
 			float crossoverPercentage2 = r.nextFloat();
@@ -47,16 +81,119 @@ public class Population {
 			parent2 = selectParent(parent1);
 			if (crossoverPercentage2 < 0.8) { // 80% chance of doing crossover.
 				children = performCrossover(parent1, parent2);
+				commit(breeding);
 				// 20% chance of doing mutation.
 				recheckConflicts(children);
+				if (solution != null) {
+					break; // Finish GA
+				}
 				if (mutationPercentage2 < 0.2) {
+					BreedingEvent mutation = recordEvents ? begin(new BreedingEvent()) : null;
 					performMutation(children.get(0)); // Mutation for child 1
 					performMutation(children.get(1)); // Mutation for child 2
+					commit(mutation);
+					checkSolutions(children); // Mutation keeps the conflicts up to date.
+					if (solution != null) {
+						break; // Finish GA
+					}
 				}
-				recheckConflicts(children);
+				SurvivorSelectionEvent selection = recordEvents ? begin(new SurvivorSelectionEvent()) : null;
 				performTournamentSelection(parent1, parent2);
+				commit(selection);
+			} else {
+				commit(breeding);
+			}
+		}
+		Board best = solution != null ? solution : getBestBoard();
+		return new SolverResult(best, generations, evaluations, System.nanoTime() - startTime, cancelled);
+	}
+
+	/**
+	 * Set the largest number of generations in one run.
+	 * 
+	 * @param generationLimit
+	 *            - largest number of generations (10000 by default).
+	 */
+	public void setGenerationLimit(int generationLimit) {
+		this.generationLimit = generationLimit;
+	}
+
+	/**
+	 * Set the seed of the random number generator, so a run can be repeated or
+	 * populations run side by side follow different streams. Must be called
+	 * before run().
+	 * 
+	 * @param seed
+	 *            - seed for the random number generator.
+	 */
+	public void setSeed(long seed) {
+		r = new Random(seed);
+	}
+
+	/**
+	 * Ask the run to stop after the current generation. Can be called from any
+	 * thread.
+	 */
+	@Override
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Check whether the run has been asked to stop early.
+	 * 
+	 * @return true if cancel() has been called.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Get the board with the fewest conflicts in the population.
+	 * 
+	 * @return best board.
+	 */
+	public Board getBestBoard() {
+		Board best = boards.get(0);
+		for (Board b : boards) {
+			if (b.getConflictCount() < best.getConflictCount()) {
+				best = b;
 			}
 		}
+		return best;
+	}
+
+	/**
+	 * Begin a flight recorder event.
+	 * 
+	 * @param event
+	 *            - new event.
+	 * @return event
+	 */
+	private static <E extends SolverEvent> E begin(E event) {
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Commit a flight recorder event if a recording wants it, filling in the
+	 * board and population size. The event ends now.
+	 * 
+	 * @param event
+	 *            - event which has begun (null if this generation is not
+	 *            recorded).
+	 */
+	private void commit(SolverEvent event) {
+		if (event == null) {
+			return;
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.n = n;
+			event.populationSize = populationSize;
+			event.generation = generation;
+			event.commit();
+		}
 	}
 
 	/**
@@ -65,7 +202,7 @@ public class Population {
 	 */
 	public void initialisePopulation() {
 		for (int i = 0; i < populationSize; i++) {
-			Board newBoard = new Board(n);
+			Board newBoard = new Board(n, r);
 			boards.add(newBoard);
 		}
 	}
@@ -74,37 +211,75 @@ public class Population {
 	 * Check the fitness of all individuals in population.
 	 */
 	public void recheckConflicts() {
+		EvaluationEvent event = recordEvents ? begin(new EvaluationEvent()) : null;
 		for (Board b : boards) {
-			b.checkConflicts();
+			b.checkConflicts(upDiagonals[0], downDiagonals[0]);
+			evaluations++;
 			if (b.getConflictCount() == 0) {
-				System.out.println("Solution Found!");
-				System.out.println("Board: " + b.getQueens().toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
-				final long endTime = System.currentTimeMillis();
-				System.out.println("Total execution time: " + ((endTime - startTime) / 1000) + " seconds\t"
-						+ (endTime - startTime) + " ms");
-				System.exit(0);
+				solutionFound(b);
 			}
+			b.releaseCounters(); // Members of the population are not changed in place.
 		}
+		if (event != null) {
+			event.boards = boards.size();
+		}
+		commit(event);
 	}
 		
 	/**
-	 * Check the fitness of children after the crossover/mutation operators.
+	 * Check the fitness of children after the crossover/mutation operators. Each
+	 * child is counted on a pair of diagonal counters kept by the population,
+	 * which it keeps for mutation until it joins the population.
 	 * @param boardsList - list of children.
 	 */
 	public void recheckConflicts(List<Board> boardsList) {
+		EvaluationEvent event = recordEvents ? begin(new EvaluationEvent()) : null;
+		for (int i = 0; i < boardsList.size(); i++) {
+			Board b = boardsList.get(i);
+			if (i < upDiagonals.length) {
+				b.checkConflicts(upDiagonals[i], downDiagonals[i]);
+			} else {
+				b.checkConflicts();
+			}
+			evaluations++;
+			if (b.getConflictCount() == 0) {
+				solutionFound(b);
+			}
+		}
+		if (event != null) {
+			event.boards = boardsList.size();
+		}
+		commit(event);
+	}
+
+	/**
+	 * Check whether any board whose conflicts are already up to date (e.g. after
+	 * mutation) is a solution.
+	 * 
+	 * @param boardsList
+	 *            - list of boards.
+	 */
+	public void checkSolutions(List<Board> boardsList) {
 		for (Board b : boardsList) {
-			b.checkConflicts();
 			if (b.getConflictCount() == 0) {
-				System.out.println("Solution Found!");
-				System.out.println("Board: " + b.getQueens().toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
-				final long endTime = System.currentTimeMillis();
-				System.out.println("Total execution time: " + ((endTime - startTime) / 1000) + " seconds\t"
-						+ (endTime - startTime) + " ms");
-				System.exit(0); // Terminate program
+				solutionFound(b);
 			}
 		}
 	}
 
+	/**
+	 * Record a board with no conflicts as the solution, which ends the run.
+	 * 
+	 * @param b
+	 *            - board with no conflicts.
+	 */
+	private void solutionFound(Board b) {
+		if (solution == null) {
+			solution = b;
+			b.releaseCounters(); // Solution must not hold counters of this population.
+		}
+	}
+
 	/**
 	 * Use Roulette Wheel Selection to choose one of the individuals/candidate
 	 * solutions to be a parent for crossover/mutation operations.
@@ -112,8 +287,6 @@ public class Population {
 	 * @return one individual chosen to be a parent by roulette wheel selection.
 	 */
 	public Board selectParent(Board previousParent) {
-		Random r = new Random();
-		
 		// If one parent has already been selected, temporarily remove it for second parent selection
 		if (previousParent != null) {
 			boards.remove(previousParent);
@@ -121,25 +294,19 @@ public class Population {
 		
 		// Total fitness of all individuals in population.
 		int totalFitness = 0;
-		// Fitness of each individual relative to whole population.
-		List<Float> relFitness = new ArrayList<Float>();
 		for (Board b : boards) {
-			float num = b.getConflictCount();
-			relFitness.add(num);
 			totalFitness += b.getConflictCount();
 		}
-		// Calculate all relative fitnesses.
-		for (int c = 0; c < relFitness.size(); c++) {
-			relFitness.set(c, relFitness.get(c) / totalFitness);
-		}
-		// Find bounds for all fitnesses in population.
+		// Calculate all relative fitnesses (fitness of each individual relative to
+		// whole population) and find bounds for all fitnesses in population.
 		float min = 0;
 		float max = 0;
-		for (float num : relFitness) {
-			if (num > max) {
-				max = num; // Set fitness to be maximum fitness bound.
-			} else if (num < min) {
-				min = num; // Set fitness to be minimum fitness bound.
+		for (int c = 0; c < boards.size(); c++) {
+			relFitness[c] = (float) boards.get(c).getConflictCount() / totalFitness;
+			if (relFitness[c] > max) {
+				max = relFitness[c]; // Set fitness to be maximum fitness bound.
+			} else if (relFitness[c] < min) {
+				min = relFitness[c]; // Set fitness to be minimum fitness bound.
 			}
 		}
 		float c = 0;
@@ -147,8 +314,8 @@ public class Population {
 		int chosenIndex = 0;
 
 		// Roulette Wheel Selection
-		for (int d = 0; d < populationSize; d++) {
-			c += relFitness.get(d);
+		for (int d = 0; d < boards.size(); d++) {
+			c += relFitness[d];
 			if (roulette <= c) {
 				chosenIndex = d;
 				break;
@@ -174,7 +341,6 @@ public class Population {
 	 */
 	public List<Board> performCrossover(Board parent1, Board parent2) {
 		// Two Point Crossover
-		Random r = new Random();
 		int crossoverPoint = r.nextInt(n) + 1;
 		int crossoverPoint2 = r.nextInt(n) + 1;
 		// Ensure crossover segment is indexed from left to right.
@@ -183,25 +349,21 @@ public class Population {
 			crossoverPoint = crossoverPoint2;
 			crossoverPoint2 = temp;
 		}
-		Board child1 = new Board(n);
-		Board child2 = new Board(n);
-		// Avoid java copy variable problem (cloning)
-		for (int k = 0; k < n; k++) {
-			child1.getQueens().set(k, parent1.getQueens().get(k));
-			child2.getQueens().set(k, parent2.getQueens().get(k));
-		}
-		// Modify queens within the crossover segment for both children.
-		for (int i = crossoverPoint; i < crossoverPoint2; i++) {
-			child1.getQueens().set(i, parent2.getQueens().get(i));
-			child2.getQueens().set(i, parent1.getQueens().get(i));
-		}
+		// Copy the parents (avoid java copy variable problem).
+		Board child1 = new Board(parent1);
+		Board child2 = new Board(parent2);
+		// Swap queens within the crossover segment for both children.
+		System.arraycopy(parent2.getQueens(), crossoverPoint, child1.getQueens(), crossoverPoint,
+				crossoverPoint2 - crossoverPoint);
+		System.arraycopy(parent1.getQueens(), crossoverPoint, child2.getQueens(), crossoverPoint,
+				crossoverPoint2 - crossoverPoint);
 
-		List<Board> newChildren = boards;
+		children.clear();
 		child1 = performRepairFunction(child1); // Remove duplicates in child 1.
 		child2 = performRepairFunction(child2); // Remove duplicates in child 2.
-		newChildren.add(child1);
-		newChildren.add(child2);
-		return newChildren; // Feed new children back into population.
+		children.add(child1);
+		children.add(child2);
+		return children; // Children compete with their parents in survivor selection.
 	}
 
 	/**
@@ -213,12 +375,10 @@ public class Population {
 	 */
 	public void performMutation(Board board) {
 		// Single bit Mutation (Work Around)
-		Random r = new Random();
 		int mutationPoint = r.nextInt(n) + 1;
-		int remove = board.getQueens().get(mutationPoint - 1); 															
-		board.getQueens().remove(mutationPoint - 1); // Remove queen.
-		// Add the removed queen back while on the last column.
-		board.getQueens().add(remove); 
+		// Remove queen and add it back while on the last column, updating the
+		// conflicts as the queens move.
+		board.moveQueenToEnd(mutationPoint - 1);
 	}
 
 	/**
@@ -230,24 +390,48 @@ public class Population {
 	 * @return child from population which has been repaired.
 	 */
 	public Board performRepairFunction(Board child) {
-		List<Integer> replacementList = new ArrayList<Integer>();
-		for (int i = 1; i < n + 1; i++) {
-			if (!(child.getQueens().contains(i))) {
-				// Find positions which are not occupied by a queen.
-				replacementList.add(i);
-			}
-		}
+		repair(child.getQueens(), n, seen, missing);
+		return child;
+	}
 
+	/**
+	 * Replace duplicate queen positions with the positions no queen is on, in
+	 * O(n) with no allocation. The positions no queen is on are given out in
+	 * order to the second (and later) queens on each position.
+	 * 
+	 * @param queens
+	 *            - positions of the queens on a board.
+	 * @param n
+	 *            - size of board (nxn) and the number of queens on board.
+	 * @param seen
+	 *            - buffer for marking positions (at least n + 1 bits).
+	 * @param missing
+	 *            - buffer for positions with no queen (at least n long).
+	 */
+	static void repair(int[] queens, int n, BitSet seen, int[] missing) {
+		seen.clear();
+		for (int j = 0; j < n; j++) {
+			seen.set(queens[j]);
+		}
+		int missingCount = 0;
+		// Find positions which are not occupied by a queen.
+		for (int i = seen.nextClearBit(1); i < n + 1; i = seen.nextClearBit(i + 1)) {
+			missing[missingCount++] = i;
+		}
+		if (missingCount == 0) {
+			return; // No duplicates.
+		}
 		int index = 0; // Traverse through unoccupied positions.
-		Set<Integer> queenSet = new HashSet<Integer>();
 		for (int j = 0; j < n; j++) {
-			// Replace duplicate positions with unoccupied positions.
-			if (queenSet.add(child.getQueens().get(j)) == false) {
-				child.getQueens().set(j, replacementList.get(index));
+			// Keep first queen on each position (clearing its mark) and replace
+			// duplicate positions with unoccupied positions.
+			if (seen.get(queens[j])) {
+				seen.clear(queens[j]);
+			} else {
+				queens[j] = missing[index];
 				index++;
 			}
 		}
-		return child;
 	}
 	
 	/**
@@ -273,32 +457,45 @@ public class Population {
 //		// Remove parents from population and add two tournament winners later
 		boards.remove(parent1);
 		boards.remove(parent2);	
-		List<Board> tournamentParticipants = new ArrayList<Board>();
-		List<Board> winners = new ArrayList<Board>();
-		Board winner = null;
 		
 		// Put both parents and children in tournament
-		tournamentParticipants.add(parent1);
-		tournamentParticipants.add(parent2);
-		tournamentParticipants.add(children.get(0));
-		tournamentParticipants.add(children.get(1));
+		tournament[0] = parent1;
+		tournament[1] = parent2;
+		tournament[2] = children.get(0);
+		tournament[3] = children.get(1);
 		
 		// Get two best solutions out of both parents and children (2 out of 4)
-		for (int i = 0; i < 2; i++) { 
-			winner = tournamentParticipants.get(0);
-			for (int j = 0; j < tournamentParticipants.size(); j++) {
-				if (winner.getConflictCount() > tournamentParticipants.get(j).getConflictCount()) {
-					winner = tournamentParticipants.get(j);
-				}
-			}	
-			winners.add(winner);
-			tournamentParticipants.remove(winner);
-			
-		}
+		selectBest(tournament, 2);
 		
 		// Add winners back into population
 		for (int k = 0; k < 2; k++) {
-			boards.add(winners.get(k));
+			tournament[k].releaseCounters(); // Members of the population are not changed in place.
+			boards.add(tournament[k]);
+		}
+		Arrays.fill(tournament, null);
+	}
+
+	/**
+	 * Move the fittest boards to the front of an array, keeping the other boards
+	 * in order. The first of equally fit boards wins.
+	 * 
+	 * @param participants
+	 *            - boards competing.
+	 * @param count
+	 *            - number of winners.
+	 */
+	static void selectBest(Board[] participants, int count) {
+		for (int i = 0; i < count; i++) {
+			int winner = i; // Fittest remaining participant (first one if equal).
+			for (int j = i + 1; j < participants.length; j++) {
+				if (participants[winner].getConflictCount() > participants[j].getConflictCount()) {
+					winner = j;
+				}
+			}
+			// Move winner to position i, keeping the other participants in order.
+			Board b = participants[winner];
+			System.arraycopy(participants, i, participants, i + 1, winner - i);
+			participants[i] = b;
 		}
 	}
 
@@ -319,10 +516,10 @@ public class Population {
 	 */
 	public void printFinalResult() {
 		for (Board b : boards) {
-//			 System.out.println("Board: " + b.getQueens().toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
+//			 System.out.println("Board: " + b.toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
 			if (b.getConflictCount() == 0) {
 				System.out.println(
-						"Board: " + b.getQueens().toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
+						"Board: " + b.toString() + "\t" + "Number of Conflicts: " + b.getConflictCount());
 			}
 		}
 	}
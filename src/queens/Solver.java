@@ -0,0 +1,26 @@
+package queens;
+
+/**
+ * A Genetic Algorithm for the n-queens problem which can be run once and
+ * cancelled from another thread, such as Population and ModifiedPopulation.
+ * 
+ * @author Shenal Abeyasinghe
+ *
+ */
+public interface Solver {
+
+	/**
+	 * Run the Genetic Algorithm until a board with no conflicts is found, the
+	 * generation limit is reached or the run is cancelled.
+	 * 
+	 * @return result of the run, with the solution or else the best board found.
+	 */
+	SolverResult run();
+
+	/**
+	 * Ask the run to stop after the current generation. Can be called from any
+	 * thread.
+	 */
+	void cancel();
+
+}
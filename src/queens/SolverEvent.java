@@ -0,0 +1,35 @@
+package queens;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for part of a run of the n-queens Genetic
+ * Algorithm, with the board and population size. Events are only created for
+ * one generation in every SAMPLE_INTERVAL (and for the initial population), so
+ * they cost almost nothing even while a recording is running.
+ * 
+ * @author Shenal Abeyasinghe
+ *
+ */
+@Category({ "N Queens" })
+@StackTrace(false)
+abstract class SolverEvent extends Event {
+
+	static final int SAMPLE_INTERVAL = 32; // One generation in this many is recorded.
+
+	@Label("Board Size")
+	int n; // Board size.
+
+	@Label("Population Size")
+	int populationSize; // Number of boards in the population.
+
+	@Label("Generation")
+	int generation; // Generations finished before this event.
+
+	@Label("Sample Interval")
+	int sampleInterval = SAMPLE_INTERVAL; // One generation in this many is recorded.
+
+}
@@ -0,0 +1,110 @@
+package queens;
+
+/**
+ * Result of one run of the n-queens Genetic Algorithm: the best board found
+ * and what the run cost.
+ *
+ * @author Shenal Abeyasinghe
+ *
+ */
+public class SolverResult {
+
+	private Board solution = null; // Best board found (no conflicts if solved).
+	private int generations; // Number of generations run.
+	private long evaluations; // Number of boards whose conflicts were counted.
+	private long elapsedNanos; // Run time in nanoseconds.
+	private boolean cancelled; // Whether the run was cancelled before it finished.
+
+	/**
+	 * Constructor for SolverResult.
+	 *
+	 * @param solution
+	 *            - best board found.
+	 * @param generations
+	 *            - number of generations run.
+	 * @param evaluations
+	 *            - number of boards whose conflicts were counted.
+	 * @param elapsedNanos
+	 *            - run time in nanoseconds.
+	 * @param cancelled
+	 *            - whether the run was cancelled.
+	 */
+	SolverResult(Board solution, int generations, long evaluations, long elapsedNanos, boolean cancelled) {
+		this.solution = solution;
+		this.generations = generations;
+		this.evaluations = evaluations;
+		this.elapsedNanos = elapsedNanos;
+		this.cancelled = cancelled;
+	}
+
+	/**
+	 * Get the best board found, which is a solution if it has no conflicts.
+	 *
+	 * @return solution
+	 */
+	public Board getSolution() {
+		return solution;
+	}
+
+	/**
+	 * Check whether a board with no conflicts was found.
+	 *
+	 * @return true if solved.
+	 */
+	public boolean isSolved() {
+		return solution != null && solution.getConflictCount() == 0;
+	}
+
+	/**
+	 * Get the number of generations run (including the one which found the
+	 * solution).
+	 *
+	 * @return generations
+	 */
+	public int getGenerations() {
+		return generations;
+	}
+
+	/**
+	 * Get the number of boards whose conflicts were counted in full (mutations
+	 * update the conflicts of a board without counting them again).
+	 *
+	 * @return evaluations
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Get the run time in nanoseconds.
+	 *
+	 * @return elapsedNanos
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Check whether the run was cancelled before it found a solution or ran all
+	 * its generations.
+	 *
+	 * @return true if cancelled.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Describe the result, e.g. for printing.
+	 *
+	 * @return description
+	 */
+	@Override
+	public String toString() {
+		return (isSolved() ? "Solution Found!" : cancelled ? "Cancelled" : "No Solution Found") + "\tBoard: "
+				+ solution + "\tNumber of Conflicts: " + (solution == null ? "-" : solution.getConflictCount())
+				+ "\tGenerations: " + generations + "\tEvaluations: " + evaluations + "\tTime: "
+				+ elapsedNanos / 1000000 + " ms";
+	}
+
+}